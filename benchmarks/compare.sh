@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+#
+# Runs the JMH benchmarks at two commits and prints the change in score per benchmark.
+#
+# Usage: benchmarks/compare.sh <base-commit> [<head-commit>] [jmh args...]
+#
+# The head commit defaults to HEAD. Extra arguments are passed to JMH, for example a
+# benchmark name regex to only run a subset: benchmarks/compare.sh main HEAD Serialization
+#
+# Requires Docker (for Testcontainers) and jq.
+
+set -euo pipefail
+
+if [ $# -lt 1 ]; then
+  sed -n '3,11p' "$0" | sed 's/^# \{0,1\}//'
+  exit 1
+fi
+
+BASE="$1"
+HEAD="${2:-HEAD}"
+shift $(( $# < 2 ? $# : 2 ))
+EXTRA_ARGS="$*"
+
+ROOT="$(git rev-parse --show-toplevel)"
+WORK="$(mktemp -d)"
+trap 'git -C "$ROOT" worktree remove --force "$WORK/base" >/dev/null 2>&1 || true; git -C "$ROOT" worktree remove --force "$WORK/head" >/dev/null 2>&1 || true; rm -rf "$WORK"' EXIT
+
+run_benchmarks() {
+  local commit="$1" dir="$2" result="$3"
+  git -C "$ROOT" worktree add --detach "$dir" "$commit" >/dev/null
+  (cd "$dir" && ./mvnw -q -B -Pbenchmark test-compile exec:exec -Djmh.args="-rf json -rff $result $EXTRA_ARGS")
+}
+
+run_benchmarks "$BASE" "$WORK/base" "$WORK/base.json"
+run_benchmarks "$HEAD" "$WORK/head" "$WORK/head.json"
+
+# Key each result by benchmark name and params so parameterised runs line up
+KEY='.benchmark + ((.params // {}) | to_entries | map("[" + .key + "=" + .value + "]") | join(""))'
+
+jq -r -n \
+  --slurpfile base "$WORK/base.json" \
+  --slurpfile head "$WORK/head.json" \
+  "
+  (\$base[0] | map({key: ($KEY), value: .primaryMetric}) | from_entries) as \$b
+  | \$head[0][]
+  | ($KEY) as \$k
+  | select(\$b[\$k] != null)
+  | [\$k, \$b[\$k].score, .primaryMetric.score, .primaryMetric.scoreUnit,
+     ((.primaryMetric.score - \$b[\$k].score) / \$b[\$k].score * 100)]
+  | \"\(.[0] | sub(\"^com.cristinasatterfield.technicalassessment.benchmark.\"; \"\"))\t\(.[1] * 100 | round / 100)\t\(.[2] * 100 | round / 100)\t\(.[3])\t\(.[4] * 10 | round / 10)%\"
+  " | (printf 'benchmark\tbase\thead\tunit\tchange\n'; cat) | column -t -s $'\t'
@@ -0,0 +1,25 @@
+package com.cristinasatterfield.technicalassessment.benchmark;
+
+import com.cristinasatterfield.technicalassessment.TechnicalAssessmentApplication;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application for benchmarks that need the full stack. The test
+ * application.properties is on the benchmark classpath, so the database is a
+ * Testcontainers Postgres just like in the integration tests.
+ */
+public final class BenchmarkApplication {
+  private BenchmarkApplication() {
+
+  }
+
+  public static ConfigurableApplicationContext start(String... args) {
+    final String[] allArgs = new String[args.length + 2];
+    allArgs[0] = "--server.port=0";
+    allArgs[1] = "--logging.level.root=WARN";
+    System.arraycopy(args, 0, allArgs, 2, args.length);
+    return SpringApplication.run(TechnicalAssessmentApplication.class, allArgs);
+  }
+}
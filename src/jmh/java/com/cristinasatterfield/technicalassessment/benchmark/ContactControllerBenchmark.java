@@ -0,0 +1,75 @@
+package com.cristinasatterfield.technicalassessment.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactService;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Controller dispatch through MockMvc, covering argument resolution, validation and
+ * message conversion on top of the service calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContactControllerBenchmark {
+  private ConfigurableApplicationContext context;
+
+  private MockMvc mockMvc;
+
+  private Long contactId;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+    final Contact contact = context.getBean(ContactService.class).createContact(new CreateContactDto("Benchmark Contact"));
+    contactId = contact.getId();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public MockHttpServletResponse getContactById() throws Exception {
+    return mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/contact/" + contactId)).andReturn().getResponse();
+  }
+
+  @Benchmark
+  public MockHttpServletResponse getContactPage() throws Exception {
+    return mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/contact?limit=100")).andReturn().getResponse();
+  }
+
+  @Benchmark
+  public MockHttpServletResponse createContact() throws Exception {
+    return mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/contact")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content("{\"name\":\"Benchmark Contact\"}")).andReturn().getResponse();
+  }
+}
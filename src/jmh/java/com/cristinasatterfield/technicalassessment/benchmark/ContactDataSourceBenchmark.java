@@ -0,0 +1,128 @@
+package com.cristinasatterfield.technicalassessment.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactService;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactBatchResultDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * ContactService throughput under concurrent load with the default connection pool
+ * and driver settings, and with the prod-datasource profile: a pool sized from the
+ * cores, statements prepared on the server from their first execution and rewritten
+ * batch inserts.
+ *
+ * The application connects to a plain Postgres container rather than through the
+ * Testcontainers JDBC driver, so the driver settings of the profile take effect. The
+ * contact cache is off so every lookup reaches the database.
+ *
+ * To measure against a real database instead of a container, pass its URL and
+ * credentials to the forked JVM. Each trial seeds SEED_SIZE more contacts into it:
+ *
+ * -Djmh.args="-jvmArgsAppend '-Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/benchmark
+ *   -Dbenchmark.username=postgres -Dbenchmark.password=postgres' DataSource"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class ContactDataSourceBenchmark {
+  private static final int SEED_SIZE = 100000;
+
+  private static final int BATCH_SIZE = 50;
+
+  @Param({ "default", "prod-datasource" })
+  private String profile;
+
+  private PostgreSQLContainer<?> postgres;
+
+  private ConfigurableApplicationContext context;
+
+  private ContactService contactService;
+
+  private long[] contactIds;
+
+  @Setup
+  public void setUp() {
+    String jdbcUrl = System.getProperty("benchmark.jdbc-url", "");
+    String username = System.getProperty("benchmark.username", "postgres");
+    String password = System.getProperty("benchmark.password", "postgres");
+    if (jdbcUrl.isEmpty()) {
+      postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:13"));
+      postgres.start();
+      jdbcUrl = postgres.getJdbcUrl();
+      username = postgres.getUsername();
+      password = postgres.getPassword();
+    }
+    final List<String> args = new ArrayList<>(List.of(
+      "--spring.datasource.url=" + jdbcUrl,
+      "--spring.datasource.username=" + username,
+      "--spring.datasource.password=" + password,
+      "--spring.datasource.driver-class-name=org.postgresql.Driver",
+      "--contact.cache.enabled=false"
+    ));
+    if (!"default".equals(profile)) {
+      args.add("--spring.profiles.active=" + profile);
+    }
+    context = BenchmarkApplication.start(args.toArray(new String[0]));
+    contactService = context.getBean(ContactService.class);
+
+    final List<CreateContactDto> contacts = new ArrayList<>(SEED_SIZE);
+    for (int i = 0; i < SEED_SIZE; i++) {
+      contacts.add(new CreateContactDto("Contact Name " + i));
+    }
+    contactIds = contactService.createContacts(contacts).stream().mapToLong(ContactBatchResultDto::getId).toArray();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+    if (postgres != null) {
+      postgres.stop();
+    }
+  }
+
+  @Benchmark
+  public Optional<Contact> getContactById() {
+    return contactService.getContactById(contactIds[ThreadLocalRandom.current().nextInt(contactIds.length)]);
+  }
+
+  @Benchmark
+  public List<Contact> searchContacts() {
+    return contactService.searchContacts("name " + ThreadLocalRandom.current().nextInt(10000), 20);
+  }
+
+  @Benchmark
+  public List<ContactBatchResultDto> createContacts() {
+    final List<CreateContactDto> contacts = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      contacts.add(new CreateContactDto("Benchmark Contact " + i));
+    }
+    return contactService.createContacts(contacts);
+  }
+}
@@ -0,0 +1,182 @@
+package com.cristinasatterfield.technicalassessment.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactFormats;
+import com.cristinasatterfield.technicalassessment.contact.ContactRepository;
+import com.cristinasatterfield.technicalassessment.contact.ContactService;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The read paths of ContactService against the managed entity reads they replaced,
+ * for allocation per operation rather than time. Run with the gc profiler and compare
+ * gc.alloc.rate.norm, the bytes allocated per operation:
+ *
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="-prof gc ReadPath"
+ *
+ * The entity benchmarks load the same rows through Hibernate in a read-only
+ * transaction, as ContactRepository did. The read benchmarks need Docker and have no
+ * recorded results yet, so the JDBC reads are not shown to allocate less. The write benchmarks serialize a page to a
+ * gzip stream that flushes like Tomcat's compression, once with the ObjectMapper
+ * per row and once with the reusable contact writer of ContactFormats. They only need
+ * Jackson, so they run without Docker. Both allocate the same per page; the writer is
+ * faster because it does not flush the stream after every row:
+ *
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="-prof gc ReadPathBenchmark.writePage"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContactReadPathBenchmark {
+  private static final int SEED_SIZE = 10000;
+
+  private static final int PAGE_SIZE = 100;
+
+  private static final String SEARCH_TERM = "name 42";
+
+  /**
+   * The application against a Testcontainers Postgres seeded with SEED_SIZE contacts
+   */
+  @State(Scope.Benchmark)
+  public static class Database {
+    private ConfigurableApplicationContext context;
+
+    private ContactService contactService;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup
+    public void setUp() {
+      context = BenchmarkApplication.start();
+      contactService = context.getBean(ContactService.class);
+      entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+      readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+      readOnlyTransaction.setReadOnly(true);
+
+      final List<CreateContactDto> contacts = new ArrayList<>(SEED_SIZE);
+      for (int i = 0; i < SEED_SIZE; i++) {
+        contacts.add(new CreateContactDto("Contact Name " + i));
+      }
+      contactService.createContacts(contacts);
+    }
+
+    @TearDown
+    public void tearDown() {
+      context.close();
+    }
+  }
+
+  /**
+   * A page of contacts like the first page of the seeded table, and the mapper the
+   * application builds
+   */
+  @State(Scope.Benchmark)
+  public static class Page {
+    private ObjectMapper mapper;
+
+    private ObjectWriter writer;
+
+    private List<Contact> contacts;
+
+    @Setup
+    public void setUp() {
+      mapper = Jackson2ObjectMapperBuilder.json().build();
+      writer = new ContactFormats(mapper, Jackson2ObjectMapperBuilder.json()).writerFor(MediaType.APPLICATION_JSON);
+      contacts = new ArrayList<>(PAGE_SIZE);
+      for (int i = 0; i < PAGE_SIZE; i++) {
+        final Contact contact = new Contact();
+        contact.setId((long) i + 1);
+        contact.setName("Contact Name " + i);
+        contact.setVersion(0L);
+        contacts.add(contact);
+      }
+    }
+  }
+
+  @Benchmark
+  public List<Contact> pageEntities(Database database) {
+    return database.readOnlyTransaction.execute(status -> database.entityManager
+      .createQuery("SELECT c FROM Contact c WHERE c.id > :after ORDER BY c.id", Contact.class)
+      .setParameter("after", Long.MIN_VALUE)
+      .setMaxResults(PAGE_SIZE)
+      .getResultList());
+  }
+
+  @Benchmark
+  public List<Contact> pageRows(Database database) {
+    return database.contactService.getContactPage(null, PAGE_SIZE);
+  }
+
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public List<Contact> searchEntities(Database database) {
+    return database.readOnlyTransaction.execute(status -> (List<Contact>) database.entityManager
+      .createNativeQuery("SELECT * FROM contact WHERE lower(name) LIKE lower(:pattern) "
+        + "ORDER BY similarity(lower(name), lower(:name)) DESC, id LIMIT :limit", Contact.class)
+      .setParameter("pattern", ContactRepository.containsPattern(SEARCH_TERM))
+      .setParameter("name", SEARCH_TERM)
+      .setParameter("limit", PAGE_SIZE)
+      .getResultList());
+  }
+
+  @Benchmark
+  public List<Contact> searchRows(Database database) {
+    return database.contactService.searchContacts(SEARCH_TERM, PAGE_SIZE);
+  }
+
+  @Benchmark
+  public void writePageWithMapper(Page page) throws IOException {
+    try (JsonGenerator generator = page.mapper.createGenerator(new GZIPOutputStream(OutputStream.nullOutputStream(), true))) {
+      generator.writeStartArray();
+      for (Contact contact : page.contacts) {
+        generator.writeObject(contact);
+      }
+      generator.writeEndArray();
+    }
+  }
+
+  @Benchmark
+  public void writePageWithWriter(Page page) throws IOException {
+    try (JsonGenerator generator = page.writer.createGenerator(new GZIPOutputStream(OutputStream.nullOutputStream(), true))) {
+      generator.writeStartArray();
+      for (Contact contact : page.contacts) {
+        page.writer.writeValue(generator, contact);
+      }
+      generator.writeEndArray();
+    }
+  }
+}
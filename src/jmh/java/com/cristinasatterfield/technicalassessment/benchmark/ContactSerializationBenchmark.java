@@ -0,0 +1,95 @@
+package com.cristinasatterfield.technicalassessment.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of contact lists, the cost paid by every list and export response,
+ * in each encoding the API negotiates. Setup prints the encoded and gzipped size of
+ * each list so the payload savings can be read next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactSerializationBenchmark {
+  @Param({ "100", "10000", "100000" })
+  private int size;
+
+  @Param({ "json", "cbor", "smile" })
+  private String format;
+
+  private List<Contact> contacts;
+
+  private ObjectWriter writer;
+
+  @Setup
+  public void setUp() throws IOException {
+    contacts = new ArrayList<>(size);
+    for (long i = 0; i < size; i++) {
+      final Contact contact = new Contact();
+      contact.setId(i);
+      contact.setName("Contact Name " + i);
+      contact.setVersion(0L);
+      contacts.add(contact);
+    }
+
+    final ObjectMapper mapper;
+    switch (format) {
+      case "cbor":
+        mapper = new ObjectMapper(new CBORFactory());
+        break;
+      case "smile":
+        mapper = new ObjectMapper(new SmileFactory());
+        break;
+      default:
+        mapper = new ObjectMapper();
+    }
+    writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Contact.class));
+
+    final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    writer.writeValue(encoded, contacts);
+    final ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+      encoded.writeTo(gzip);
+    }
+    System.out.printf("%s, %d contacts: %d bytes, %d bytes gzipped%n", format, size, encoded.size(), gzipped.size());
+  }
+
+  @Benchmark
+  public void serializeList() throws IOException {
+    writer.writeValue(OutputStream.nullOutputStream(), contacts);
+  }
+
+  @Benchmark
+  public void serializeListGzip() throws IOException {
+    try (GZIPOutputStream gzip = new GZIPOutputStream(OutputStream.nullOutputStream())) {
+      writer.writeValue(gzip, contacts);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.cristinasatterfield.technicalassessment.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactService;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactBatchResultDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * ContactService against a Testcontainers Postgres seeded with SEED_SIZE contacts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContactServiceBenchmark {
+  private static final int SEED_SIZE = 100000;
+
+  private ConfigurableApplicationContext context;
+
+  private ContactService contactService;
+
+  private long[] contactIds;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    contactService = context.getBean(ContactService.class);
+
+    final List<CreateContactDto> contacts = new ArrayList<>(SEED_SIZE);
+    for (int i = 0; i < SEED_SIZE; i++) {
+      contacts.add(new CreateContactDto("Contact Name " + i));
+    }
+    contactIds = contactService.createContacts(contacts).stream().mapToLong(ContactBatchResultDto::getId).toArray();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Optional<Contact> getContactById() {
+    return contactService.getContactById(contactIds[ThreadLocalRandom.current().nextInt(contactIds.length)]);
+  }
+
+  @Benchmark
+  public Contact createContact() {
+    return contactService.createContact(new CreateContactDto("Benchmark Contact"));
+  }
+
+  @Benchmark
+  public List<Contact> searchContacts() {
+    return contactService.searchContacts("name 4242", 100);
+  }
+}
@@ -0,0 +1,69 @@
+package com.cristinasatterfield.technicalassessment.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSuggestionDto;
+import com.cristinasatterfield.technicalassessment.contact.suggest.ContactSuggestIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Top 10 suggestions from a suggest index of random two word names. Setup prints the
+ * heap used by the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactSuggestBenchmark {
+  @Param({ "100000", "1000000" })
+  private int size;
+
+  private ContactSuggestIndex index;
+
+  @Setup
+  public void setUp() {
+    final Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    final long before = runtime.totalMemory() - runtime.freeMemory();
+
+    final Random random = new Random(42);
+    index = new ContactSuggestIndex(new SimpleMeterRegistry());
+    index.load(sink -> {
+      for (int i = 0; i < size; i++) {
+        sink.add(i, "Given" + random.nextInt(100000) + " Family" + random.nextInt(1000000));
+      }
+    });
+
+    System.gc();
+    final long after = runtime.totalMemory() - runtime.freeMemory();
+    System.out.printf("%d names: %d MB%n", size, (after - before) / 1_000_000);
+  }
+
+  @Benchmark
+  public List<ContactSuggestionDto> suggestFirstWord() {
+    return index.suggest("given" + ThreadLocalRandom.current().nextInt(1000), 10);
+  }
+
+  @Benchmark
+  public List<ContactSuggestionDto> suggestSecondWord() {
+    return index.suggest("family" + ThreadLocalRandom.current().nextInt(10000), 10);
+  }
+}
@@ -0,0 +1,19 @@
+package com.cristinasatterfield.technicalassessment.loadtest;
+
+/**
+ * The contiguous id range of the seeded contacts
+ */
+final class Dataset {
+  final long firstId;
+
+  final long lastId;
+
+  Dataset(long firstId, long lastId) {
+    this.firstId = firstId;
+    this.lastId = lastId;
+  }
+
+  long rows() {
+    return lastId - firstId + 1;
+  }
+}
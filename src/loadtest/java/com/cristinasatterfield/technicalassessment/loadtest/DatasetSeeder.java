@@ -0,0 +1,130 @@
+package com.cristinasatterfield.technicalassessment.loadtest;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Fills the contact table with generated names, inside Postgres so seeding 10 million
+ * rows is a handful of INSERT ... SELECT statements rather than a network transfer.
+ *
+ * Names are two words of two syllables each, such as "Kalo Mira", picked by hashing
+ * the id. With 30 syllables that gives 900 words, so a search for one word matches
+ * about 1 in 450 contacts whatever the size of the table.
+ *
+ * The seeded range is recorded in loadtest_dataset, so later runs against the same
+ * database reuse it. Seeding a different size truncates the contact table first, so
+ * only point this at a database kept for load tests.
+ */
+final class DatasetSeeder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DatasetSeeder.class);
+
+  static final List<String> SYLLABLES = List.of(
+    "ka", "lo", "mi", "ra", "ne", "to", "su", "vi", "de", "ma",
+    "ri", "an", "el", "or", "is", "ba", "co", "fi", "ga", "ho",
+    "ju", "le", "no", "pa", "qu", "sa", "te", "ul", "ve", "ya"
+  );
+
+  /**
+   * Rows inserted per statement and transaction
+   */
+  private static final long CHUNK_SIZE = 100000;
+
+  /**
+   * Must match the INCREMENT BY of contact_id_seq
+   */
+  private static final long ID_BLOCK_SIZE = 50;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  DatasetSeeder(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  Dataset seed(long rows) {
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS loadtest_dataset (first_id BIGINT NOT NULL, last_id BIGINT NOT NULL)");
+    final List<Dataset> existing = jdbcTemplate.query("SELECT first_id, last_id FROM loadtest_dataset",
+      (resultSet, rowNum) -> new Dataset(resultSet.getLong("first_id"), resultSet.getLong("last_id")));
+    if (!existing.isEmpty() && existing.get(0).rows() == rows) {
+      LOGGER.info("Reusing the {} seeded contacts", rows);
+      return existing.get(0);
+    }
+    if (!existing.isEmpty()) {
+      LOGGER.info("Replacing the {} seeded contacts", existing.get(0).rows());
+      jdbcTemplate.execute("TRUNCATE contact, contact_change, loadtest_dataset");
+    }
+
+    final Dataset dataset = reserveIds(rows);
+    final long start = System.nanoTime();
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      try (Statement statement = connection.createStatement()) {
+        // Skips the change log trigger, the seed is not a change anyone has to follow
+        statement.execute("SET session_replication_role = replica");
+      }
+      try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+        insert.setArray(1, connection.createArrayOf("text", SYLLABLES.toArray()));
+        for (long first = dataset.firstId; first <= dataset.lastId; first += CHUNK_SIZE) {
+          insert.setLong(2, first);
+          insert.setLong(3, Math.min(first + CHUNK_SIZE - 1, dataset.lastId));
+          insert.executeUpdate();
+          LOGGER.info("Seeded {} of {} contacts", Math.min(first + CHUNK_SIZE, dataset.lastId + 1) - dataset.firstId, rows);
+        }
+      } finally {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("RESET session_replication_role");
+        }
+      }
+      return null;
+    });
+
+    jdbcTemplate.execute("ANALYZE contact");
+    jdbcTemplate.update("INSERT INTO loadtest_dataset (first_id, last_id) VALUES (?, ?)", dataset.firstId, dataset.lastId);
+    LOGGER.info("Seeded {} contacts in {} s", rows, (System.nanoTime() - start) / 1_000_000_000);
+    return dataset;
+  }
+
+  /**
+   * Take ids for every row from contact_id_seq at once. Moving the sequence past the
+   * range keeps the application's pooled id blocks clear of it.
+   */
+  private Dataset reserveIds(long rows) {
+    final long last = jdbcTemplate.queryForObject("SELECT nextval('contact_id_seq')", Long.class);
+    final long blocks = (rows + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+    jdbcTemplate.queryForObject("SELECT setval('contact_id_seq', ?)", Long.class, last + blocks * ID_BLOCK_SIZE);
+    return new Dataset(last + 1, last + rows);
+  }
+
+  private static String insertSql() {
+    return "INSERT INTO contact (id, name)"
+      + " SELECT g, initcap(" + syllable(0) + " || " + syllable(1) + ") || ' ' || initcap(" + syllable(2) + " || " + syllable(3) + ")"
+      + " FROM (SELECT ?::text[] AS s) syllables, generate_series(?::bigint, ?::bigint) g";
+  }
+
+  /**
+   * The nth syllable of the name for id g, chosen by a hash of g so neighbouring ids
+   * get unrelated names
+   */
+  private static String syllable(int n) {
+    return "s[(1 + (hashint8(g * 4 + " + n + ")::bigint + 2147483648) % " + SYLLABLES.size() + ")::int]";
+  }
+
+  static String randomWord(ThreadLocalRandom random) {
+    return SYLLABLES.get(random.nextInt(SYLLABLES.size())) + SYLLABLES.get(random.nextInt(SYLLABLES.size()));
+  }
+
+  static String randomName(ThreadLocalRandom random) {
+    return capitalize(randomWord(random)) + " " + capitalize(randomWord(random));
+  }
+
+  private static String capitalize(String word) {
+    return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+  }
+}
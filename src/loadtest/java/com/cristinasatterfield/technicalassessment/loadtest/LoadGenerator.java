@@ -0,0 +1,108 @@
+package com.cristinasatterfield.technicalassessment.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the configured mix of requests, each on its own virtual thread.
+ *
+ * With a rate the workload is open: requests start on a fixed schedule whether or
+ * not earlier ones have finished, and latency is measured from the scheduled start.
+ * A stall then shows up in the latency of every request scheduled during it, instead
+ * of only in the one request that was in flight, which a closed workload reports.
+ * Without a rate the workload is closed: concurrency clients each send their next
+ * request as soon as the previous one completes.
+ */
+final class LoadGenerator {
+  private final HttpClient client;
+
+  private final URI base;
+
+  private final Dataset dataset;
+
+  private final LoadTestConfig config;
+
+  private final LoadReport report;
+
+  private final Operation[] operations;
+
+  /**
+   * Cumulative weights, parallel to operations
+   */
+  private final int[] thresholds;
+
+  LoadGenerator(HttpClient client, URI base, Dataset dataset, LoadTestConfig config, LoadReport report) {
+    this.client = client;
+    this.base = base;
+    this.dataset = dataset;
+    this.config = config;
+    this.report = report;
+    this.operations = config.mix.keySet().toArray(new Operation[0]);
+    this.thresholds = new int[operations.length];
+    int total = 0;
+    int i = 0;
+    for (Map.Entry<Operation, Integer> entry : config.mix.entrySet()) {
+      total += entry.getValue();
+      thresholds[i++] = total;
+    }
+  }
+
+  /**
+   * Generate load for the duration, then wait for the requests in flight
+   */
+  void run(Duration duration) {
+    final long end = System.nanoTime() + duration.toNanos();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      if (config.rate > 0) {
+        final long interval = (long) (1_000_000_000L / config.rate);
+        for (long next = System.nanoTime(); next < end; next += interval) {
+          final long scheduled = next;
+          LockSupport.parkNanos(scheduled - System.nanoTime());
+          executor.execute(() -> send(scheduled));
+        }
+      } else {
+        for (int i = 0; i < config.concurrency; i++) {
+          executor.execute(() -> {
+            while (System.nanoTime() < end) {
+              send(System.nanoTime());
+            }
+          });
+        }
+      }
+    }
+  }
+
+  private void send(long start) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final Operation operation = pick(random);
+    boolean failed;
+    try {
+      final HttpResponse<Void> response = client.send(operation.request(base, dataset, random), HttpResponse.BodyHandlers.discarding());
+      failed = response.statusCode() >= 400;
+    } catch (IOException e) {
+      failed = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    report.record(operation, System.nanoTime() - start, failed);
+  }
+
+  private Operation pick(ThreadLocalRandom random) {
+    final int ticket = random.nextInt(thresholds[thresholds.length - 1]);
+    for (int i = 0; i < thresholds.length; i++) {
+      if (ticket < thresholds[i]) {
+        return operations[i];
+      }
+    }
+    throw new IllegalStateException("Unreachable");
+  }
+}
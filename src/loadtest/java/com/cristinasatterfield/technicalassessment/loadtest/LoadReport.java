@@ -0,0 +1,142 @@
+package com.cristinasatterfield.technicalassessment.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histograms and error counts per operation. Recording is lock free, so the
+ * load generator's threads never wait on each other to report.
+ */
+final class LoadReport {
+  /**
+   * The key of the summary across every operation
+   */
+  static final String ALL = "all";
+
+  private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+  LoadReport(Set<Operation> operations) {
+    for (Operation operation : operations) {
+      latencies.put(operation, new Recorder(3));
+      errors.put(operation, new LongAdder());
+    }
+  }
+
+  void record(Operation operation, long latencyNanos, boolean failed) {
+    latencies.get(operation).recordValue(latencyNanos);
+    if (failed) {
+      errors.get(operation).increment();
+    }
+  }
+
+  /**
+   * Drop everything recorded so far, at the end of the warmup
+   */
+  void reset() {
+    latencies.values().forEach(Recorder::reset);
+    errors.values().forEach(LongAdder::reset);
+  }
+
+  /**
+   * Summarise what was recorded since the last reset
+   *
+   * @param elapsed How long the measurement ran, for throughput
+   * @returns A summary per operation key, then one for all operations under ALL
+   */
+  Map<String, Summary> summarize(Duration elapsed) {
+    final Map<String, Summary> summaries = new LinkedHashMap<>();
+    final Histogram all = new Histogram(3);
+    long allErrors = 0;
+    for (Map.Entry<Operation, Recorder> entry : latencies.entrySet()) {
+      final Histogram histogram = entry.getValue().getIntervalHistogram();
+      final long operationErrors = errors.get(entry.getKey()).sum();
+      summaries.put(entry.getKey().key(), new Summary(histogram, operationErrors, elapsed));
+      all.add(histogram);
+      allErrors += operationErrors;
+    }
+    summaries.put(ALL, new Summary(all, allErrors, elapsed));
+    return summaries;
+  }
+
+  static void print(Map<String, Summary> summaries, PrintStream out) {
+    out.printf("%-10s %10s %8s %10s %9s %9s %9s %9s%n",
+      "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    summaries.forEach((key, summary) -> out.printf("%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+      key, summary.requests, summary.errors, summary.throughput,
+      millis(summary.p50), millis(summary.p99), millis(summary.p999), millis(summary.max)));
+  }
+
+  static void write(Map<String, Summary> summaries, Path file) throws IOException {
+    final Map<String, Map<String, Object>> json = new LinkedHashMap<>();
+    summaries.forEach((key, summary) -> {
+      final Map<String, Object> values = new LinkedHashMap<>();
+      values.put("requests", summary.requests);
+      values.put("errors", summary.errors);
+      values.put("throughput", summary.throughput);
+      values.put("p50Ms", millis(summary.p50));
+      values.put("p99Ms", millis(summary.p99));
+      values.put("p999Ms", millis(summary.p999));
+      values.put("maxMs", millis(summary.max));
+      json.put(key, values);
+    });
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), json);
+  }
+
+  private static double millis(Duration duration) {
+    return duration.toNanos() / 1_000_000.0;
+  }
+
+  /**
+   * Throughput, error count and latency percentiles of one operation
+   */
+  static final class Summary {
+    final long requests;
+
+    final long errors;
+
+    /**
+     * Requests per second
+     */
+    final double throughput;
+
+    final Duration p50;
+
+    final Duration p99;
+
+    final Duration p999;
+
+    final Duration max;
+
+    private Summary(Histogram histogram, long errors, Duration elapsed) {
+      this.requests = histogram.getTotalCount();
+      this.errors = errors;
+      this.throughput = requests / (elapsed.toNanos() / 1_000_000_000.0);
+      this.p50 = Duration.ofNanos(histogram.getValueAtPercentile(50));
+      this.p99 = Duration.ofNanos(histogram.getValueAtPercentile(99));
+      this.p999 = Duration.ofNanos(histogram.getValueAtPercentile(99.9));
+      this.max = Duration.ofNanos(histogram.getMaxValue());
+    }
+
+    double errorRate() {
+      return requests == 0 ? 0 : (double) errors / requests;
+    }
+  }
+}
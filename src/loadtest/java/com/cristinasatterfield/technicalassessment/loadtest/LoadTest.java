@@ -0,0 +1,129 @@
+package com.cristinasatterfield.technicalassessment.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.cristinasatterfield.technicalassessment.TechnicalAssessmentApplication;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Seeds a Postgres with loadtest.rows contacts, starts the application against it
+ * with the prod profile and drives it over HTTP with the configured mix, then prints
+ * throughput and latency percentiles per operation.
+ *
+ * Postgres is a Testcontainers container unless loadtest.jdbc-url points at one, so
+ * the run needs no network once the postgres:13 image has been pulled. The process
+ * exits with status 1 when the results miss an objective in loadtest.slo.
+ *
+ * Run through the loadtest Maven profile: ./mvnw -Ploadtest test-compile exec:exec
+ */
+public final class LoadTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LoadTest.class);
+
+  /**
+   * The test application.properties shadows the main one on this classpath, so point
+   * Spring at the main configuration explicitly. exec:exec runs in the project root.
+   */
+  private static final String CONFIG_LOCATION = "file:src/main/resources/";
+
+  private static final Duration SUGGEST_INDEX_TIMEOUT = Duration.ofMinutes(10);
+
+  private LoadTest() {
+
+  }
+
+  public static void main(String[] args) throws Exception {
+    final LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+
+    String jdbcUrl = config.jdbcUrl;
+    String username = config.username;
+    String password = config.password;
+    if (jdbcUrl == null) {
+      // Reused across runs when testcontainers.reuse.enable=true, so large datasets are seeded once
+      final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:13")).withReuse(true);
+      postgres.start();
+      jdbcUrl = postgres.getJdbcUrl();
+      username = postgres.getUsername();
+      password = postgres.getPassword();
+    }
+
+    // Migrate and seed before the application starts, so it loads the suggest index from the full dataset
+    final DataSource dataSource = new DriverManagerDataSource(jdbcUrl, username, password);
+    Flyway.configure().dataSource(dataSource).load().migrate();
+    final Dataset dataset = new DatasetSeeder(dataSource).seed(config.rows);
+
+    final Map<String, LoadReport.Summary> summaries;
+    try (ConfigurableApplicationContext application = startApplication(jdbcUrl, username, password)) {
+      final URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) application).getWebServer().getPort());
+      final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+      awaitSuggestIndex(client, base);
+
+      final LoadReport report = new LoadReport(config.mix.keySet());
+      final LoadGenerator generator = new LoadGenerator(client, base, dataset, config, report);
+      LOGGER.info("Warming up for {}", config.warmup);
+      generator.run(config.warmup);
+      report.reset();
+
+      LOGGER.info("Measuring {} against {} contacts with {}", config.duration, dataset.rows(), config.mix);
+      final long start = System.nanoTime();
+      generator.run(config.duration);
+      summaries = report.summarize(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    LoadReport.print(summaries, System.out);
+    LoadReport.write(summaries, config.result);
+
+    final List<String> violations = config.slo == null
+      ? List.of()
+      : ServiceLevelObjectives.load(config.slo).violations(summaries);
+    violations.forEach(violation -> System.out.println("SLO missed: " + violation));
+    System.exit(violations.isEmpty() ? 0 : 1);
+  }
+
+  private static ConfigurableApplicationContext startApplication(String jdbcUrl, String username, String password) {
+    return new SpringApplicationBuilder(TechnicalAssessmentApplication.class)
+      .profiles("prod")
+      .run(
+        "--spring.config.location=" + CONFIG_LOCATION,
+        "--spring.datasource.url=" + jdbcUrl,
+        "--spring.datasource.username=" + username,
+        "--spring.datasource.password=" + password,
+        "--spring.datasource.driver-class-name=org.postgresql.Driver",
+        // Measure the service, not the per-client budget the load generator would exhaust
+        "--app.rate-limit.enabled=false",
+        "--server.port=0",
+        "--logging.level.root=WARN",
+        "--logging.level.com.cristinasatterfield.technicalassessment.loadtest=INFO"
+      );
+  }
+
+  /**
+   * Suggestions answer 503 until the index has loaded every seeded name
+   */
+  private static void awaitSuggestIndex(HttpClient client, URI base) throws Exception {
+    final HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/v1/contact/suggest?prefix=ka")).build();
+    final long deadline = System.nanoTime() + SUGGEST_INDEX_TIMEOUT.toNanos();
+    while (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 503) {
+      if (System.nanoTime() > deadline) {
+        throw new IllegalStateException("The suggest index did not load within " + SUGGEST_INDEX_TIMEOUT);
+      }
+      Thread.sleep(500);
+    }
+  }
+}
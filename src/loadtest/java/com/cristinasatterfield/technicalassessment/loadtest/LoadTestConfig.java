@@ -0,0 +1,97 @@
+package com.cristinasatterfield.technicalassessment.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Settings of a load test run, read from loadtest.* system properties. The loadtest
+ * Maven profile passes each of them through with a default.
+ */
+final class LoadTestConfig {
+  /**
+   * Contacts in the dataset; 10000, 1000000 and 10000000 are the reference sizes
+   */
+  final long rows;
+
+  /**
+   * Relative weight of each operation
+   */
+  final Map<Operation, Integer> mix;
+
+  final Duration warmup;
+
+  final Duration duration;
+
+  /**
+   * Requests in flight at once, for a closed workload
+   */
+  final int concurrency;
+
+  /**
+   * Requests started per second, for an open workload; 0 for a closed workload
+   */
+  final double rate;
+
+  /**
+   * The service level objectives to check the results against, or null to only report
+   */
+  final Path slo;
+
+  final Path result;
+
+  /**
+   * A Postgres to seed and run against instead of a Testcontainers one, or null
+   */
+  final String jdbcUrl;
+
+  final String username;
+
+  final String password;
+
+  private LoadTestConfig() {
+    rows = Long.parseLong(property("rows", "10000"));
+    mix = parseMix(property("mix", "read=70,search=10,suggest=10,write=10"));
+    warmup = DurationStyle.detectAndParse(property("warmup", "15s"));
+    duration = DurationStyle.detectAndParse(property("duration", "60s"));
+    concurrency = Integer.parseInt(property("concurrency", "32"));
+    rate = Double.parseDouble(property("rate", "0"));
+    slo = property("slo", "").isEmpty() ? null : Path.of(property("slo", ""));
+    result = Path.of(property("result", "target/loadtest-result.json"));
+    jdbcUrl = property("jdbc-url", "").isEmpty() ? null : property("jdbc-url", "");
+    username = property("username", "postgres");
+    password = property("password", "postgres");
+  }
+
+  static LoadTestConfig fromSystemProperties() {
+    return new LoadTestConfig();
+  }
+
+  /**
+   * Parse a mix such as read=70,search=10,suggest=10,write=10
+   */
+  static Map<Operation, Integer> parseMix(String mix) {
+    final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (String entry : mix.split(",")) {
+      final String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Expected operation=weight in loadtest.mix, got " + entry);
+      }
+      final int weight = Integer.parseInt(parts[1].trim());
+      if (weight > 0) {
+        weights.put(Operation.fromName(parts[0].trim()), weight);
+      }
+    }
+    if (weights.isEmpty()) {
+      throw new IllegalArgumentException("loadtest.mix has no operation with a positive weight");
+    }
+    return weights;
+  }
+
+  private static String property(String name, String defaultValue) {
+    return System.getProperty("loadtest." + name, defaultValue).trim();
+  }
+}
@@ -0,0 +1,78 @@
+package com.cristinasatterfield.technicalassessment.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The requests a load test sends. Each one picks its arguments at random from the
+ * seeded dataset, so reads hit existing contacts and searches hit a realistic share
+ * of the table.
+ */
+enum Operation {
+  /**
+   * GET /api/v1/contact/{id} of a seeded contact
+   */
+  READ {
+    @Override
+    HttpRequest request(URI base, Dataset dataset, ThreadLocalRandom random) {
+      return get(base, "/api/v1/contact/" + random.nextLong(dataset.firstId, dataset.lastId + 1));
+    }
+  },
+
+  /**
+   * GET /api/v1/contact/search for a word that starts about 1 in 450 names
+   */
+  SEARCH {
+    @Override
+    HttpRequest request(URI base, Dataset dataset, ThreadLocalRandom random) {
+      return get(base, "/api/v1/contact/search?limit=20&q=" + encode(DatasetSeeder.randomWord(random)));
+    }
+  },
+
+  /**
+   * GET /api/v1/contact/suggest for the first letters of a name
+   */
+  SUGGEST {
+    @Override
+    HttpRequest request(URI base, Dataset dataset, ThreadLocalRandom random) {
+      final String word = DatasetSeeder.randomWord(random);
+      return get(base, "/api/v1/contact/suggest?prefix=" + encode(word.substring(0, 3)));
+    }
+  },
+
+  /**
+   * POST /api/v1/contact with a name like the seeded ones
+   */
+  WRITE {
+    @Override
+    HttpRequest request(URI base, Dataset dataset, ThreadLocalRandom random) {
+      final String body = "{\"name\": \"" + DatasetSeeder.randomName(random) + "\"}";
+      return HttpRequest.newBuilder(base.resolve("/api/v1/contact"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+    }
+  };
+
+  abstract HttpRequest request(URI base, Dataset dataset, ThreadLocalRandom random);
+
+  String key() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  static Operation fromName(String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT));
+  }
+
+  private static HttpRequest get(URI base, String path) {
+    return HttpRequest.newBuilder(base.resolve(path)).header("Accept", "application/json").GET().build();
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,96 @@
+package com.cristinasatterfield.technicalassessment.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Limits a load test run has to stay within, read from a properties file with one
+ * key per operation and measure:
+ *
+ * <pre>
+ * read.p99=20ms
+ * read.p999=50ms
+ * search.min-throughput=100
+ * all.max-error-rate=0.001
+ * </pre>
+ *
+ * The measures are p50, p99 and p999 latency, min-throughput in requests per second,
+ * and max-error-rate as a fraction of requests. all covers every operation together.
+ * Objectives for operations left out of the mix are skipped.
+ */
+final class ServiceLevelObjectives {
+  private final Properties objectives;
+
+  private ServiceLevelObjectives(Properties objectives) {
+    this.objectives = objectives;
+  }
+
+  static ServiceLevelObjectives load(Path file) throws IOException {
+    final Properties objectives = new Properties();
+    try (Reader reader = Files.newBufferedReader(file)) {
+      objectives.load(reader);
+    }
+    return new ServiceLevelObjectives(objectives);
+  }
+
+  /**
+   * @returns A description of every objective the results miss; empty if they meet them all
+   */
+  List<String> violations(Map<String, LoadReport.Summary> summaries) {
+    final List<String> violations = new ArrayList<>();
+    for (String key : objectives.stringPropertyNames()) {
+      final int dot = key.indexOf('.');
+      if (dot < 0) {
+        throw new IllegalArgumentException("Expected <operation>.<measure>, got " + key);
+      }
+      final LoadReport.Summary summary = summaries.get(key.substring(0, dot));
+      if (summary == null) {
+        continue;
+      }
+
+      final String measure = key.substring(dot + 1);
+      final String limit = objectives.getProperty(key).trim();
+      switch (measure) {
+        case "p50":
+          checkLatency(violations, key, summary.p50, limit);
+          break;
+        case "p99":
+          checkLatency(violations, key, summary.p99, limit);
+          break;
+        case "p999":
+          checkLatency(violations, key, summary.p999, limit);
+          break;
+        case "min-throughput":
+          if (summary.throughput < Double.parseDouble(limit)) {
+            violations.add(String.format("%s: %.1f req/s is below %s", key, summary.throughput, limit));
+          }
+          break;
+        case "max-error-rate":
+          if (summary.errorRate() > Double.parseDouble(limit)) {
+            violations.add(String.format("%s: %.4f is above %s", key, summary.errorRate(), limit));
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown measure " + measure + " in " + key);
+      }
+    }
+    violations.sort(null);
+    return violations;
+  }
+
+  private static void checkLatency(List<String> violations, String key, Duration actual, String limit) {
+    final Duration max = DurationStyle.detectAndParse(limit);
+    if (actual.compareTo(max) > 0) {
+      violations.add(String.format("%s: %.2f ms is above %s", key, actual.toNanos() / 1_000_000.0, limit));
+    }
+  }
+}
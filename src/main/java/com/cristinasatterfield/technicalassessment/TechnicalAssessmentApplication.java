@@ -2,8 +2,21 @@ package com.cristinasatterfield.technicalassessment;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+/**
+ * The blocking Spring MVC and JPA application. R2DBC is only used by
+ * ReactiveContactApplication, so its auto-configuration is left out here.
+ */
+@SpringBootApplication(exclude = {
+  R2dbcAutoConfiguration.class,
+  R2dbcDataAutoConfiguration.class,
+  R2dbcRepositoriesAutoConfiguration.class,
+  R2dbcTransactionManagerAutoConfiguration.class
+})
 public class TechnicalAssessmentApplication {
 
 	public static void main(String[] args) {
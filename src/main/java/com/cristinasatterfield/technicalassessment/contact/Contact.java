@@ -5,13 +5,16 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 
 /**
  * This class will represent our contact and its attributes:
  * - ID
  * - Name
+ * - Version, incremented on every update and used as the ETag
  */
 @Entity
 @Table(name = "contact")
@@ -21,12 +24,17 @@ public class Contact {
    * The attributes of the contact
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_id_seq")
+  @SequenceGenerator(name = "contact_id_seq", sequenceName = "contact_id_seq", allocationSize = 50)
   private Long id;
 
   @Column(nullable = false)
   private String name;
 
+  @Version
+  @Column(nullable = false)
+  private Long version;
+
   /**
    * The getters and setters for the attributes above
    */
@@ -45,4 +53,12 @@ public class Contact {
   public void setName(String value) {
     this.name = value;
   }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long value) {
+    this.version = value;
+  }
 }
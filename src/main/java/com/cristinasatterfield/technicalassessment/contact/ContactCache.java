@@ -0,0 +1,113 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * A bounded read-through cache of contacts by id.
+ *
+ * Writes on this instance update the cache directly. Writes on other instances are
+ * only picked up once the entry expires, so the time to live bounds how stale a
+ * read can be.
+ *
+ * An entry is only replaced by a contact with a higher version, so a load that read
+ * the row before a concurrent write committed cannot overwrite what that write put.
+ *
+ * The hit, miss and eviction counters are published as cache.* meters tagged with
+ * cache=contact.
+ */
+@Component
+public class ContactCache implements MeterBinder {
+  private final boolean enabled;
+
+  private final Cache<Long, Contact> cache;
+
+  public ContactCache(
+    @Value("${contact.cache.enabled:true}") boolean enabled,
+    @Value("${contact.cache.maximum-size:10000}") long maximumSize,
+    @Value("${contact.cache.time-to-live:5s}") Duration timeToLive
+  ) {
+    this.enabled = enabled;
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(timeToLive)
+      .recordStats()
+      .build();
+  }
+
+  /**
+   * Fetch a contact from the cache, falling back to the loader on a miss
+   *
+   * @param contactId The id of the contact to fetch
+   * @param loader Loads the contact when it is not cached
+   * @returns A copy of the contact, so callers cannot change the cached entry
+   */
+  public Optional<Contact> get(Long contactId, Supplier<Optional<Contact>> loader) {
+    if (!enabled) {
+      return loader.get();
+    }
+
+    final Contact cached = cache.getIfPresent(contactId);
+    if (cached != null) {
+      return Optional.of(copy(cached));
+    }
+
+    final Optional<Contact> contact = loader.get();
+    contact.ifPresent(this::put);
+    return contact.map(ContactCache::copy);
+  }
+
+  public void put(Contact contact) {
+    if (enabled) {
+      cache.asMap().merge(contact.getId(), copy(contact), ContactCache::newer);
+    }
+  }
+
+  public void invalidate(Long contactId) {
+    cache.invalidate(contactId);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * The hit, miss and eviction counters of the cache
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, "contact");
+  }
+
+  private static Contact newer(Contact cached, Contact contact) {
+    return version(contact) > version(cached) ? contact : cached;
+  }
+
+  private static long version(Contact contact) {
+    return contact.getVersion() == null ? -1 : contact.getVersion();
+  }
+
+  private static Contact copy(Contact contact) {
+    final Contact copy = new Contact();
+    copy.setId(contact.getId());
+    copy.setName(contact.getName());
+    copy.setVersion(contact.getVersion());
+    return copy;
+  }
+}
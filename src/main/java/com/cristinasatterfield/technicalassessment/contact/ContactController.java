@@ -1,15 +1,27 @@
 package com.cristinasatterfield.technicalassessment.contact;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
 import javax.validation.Valid;
 
+import com.cristinasatterfield.technicalassessment.contact.bulk.ContactBulkService;
+import com.cristinasatterfield.technicalassessment.contact.dto.BatchUpdateContactDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactBatchResultDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactImportResultDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSearchPageDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSuggestionDto;
 import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
 import com.cristinasatterfield.technicalassessment.contact.dto.UpdateContactDto;
+import com.cristinasatterfield.technicalassessment.contact.ingest.ContactIngestQueue;
+import com.cristinasatterfield.technicalassessment.contact.search.ContactSearch;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,11 +29,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -32,29 +47,177 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api/v1/contact")
 @Tag(name = "Contact API", description = "CRUD API endpoints for managing contacts.")
 public class ContactController {
+  /**
+   * Response header carrying the cursor for the next page of contacts
+   */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  public static final int DEFAULT_PAGE_SIZE = 100;
+
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  public static final int MAX_BATCH_SIZE = 10000;
+
+  public static final int DEFAULT_SUGGEST_SIZE = 10;
+
+  public static final int MAX_SUGGEST_SIZE = 50;
+
+  public static final int DEFAULT_SEARCH_SIZE = 20;
+
+  public static final int MAX_SEARCH_SIZE = 100;
+
+  /**
+   * Ranked pages are sorted from the first hit on every request, so stop paging here
+   */
+  public static final int MAX_SEARCH_DEPTH = 1000;
+
   @Autowired
   private ContactService contactService;
 
+  @Autowired
+  private ContactFormats contactFormats;
+
+  @Autowired
+  private ContactSearch contactSearch;
+
+  @Autowired
+  private ContactBulkService contactBulkService;
+
+  @Autowired(required = false)
+  private ContactIngestQueue contactIngestQueue;
+
   /**
-   * GET method to fetch all contacts or contacts that match the optional name parameter
+   * GET method to fetch a page of contacts or contacts that match the optional name parameter
    *
    * @param name A string used to search for a contact by name (optional)
+   * @param after The cursor returned with the previous page (optional)
+   * @param limit The maximum number of contacts to return (optional)
    * @returns A array of contacts that match the parameter or an empty array
    */
   @GetMapping
   @Operation(
     summary = "Fetch contacts",
-    description = "Fetch all contacts if no name is provided. If a name is provided, fetch all contacts that match."
+    description = "Fetch a page of contacts ordered by id if no name is provided. If a name is provided, fetch the best matching contacts up to the limit. Responds with JSON, CBOR or Smile according to the Accept header."
   )
-  public List<Contact> getAllContacts(@RequestParam(required = false) String name) {
-    return this.contactService.getAllContacts(name);
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Successfully returned the contacts",
+      headers = { @Header(name = NEXT_CURSOR_HEADER,
+        description = "Pass as the after parameter to fetch the next page; absent on the last page") }) })
+  public ResponseEntity<List<Contact>> getAllContacts(
+    @RequestParam(required = false) String name,
+    @RequestParam(required = false) Long after,
+    @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+  ) {
+    final int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+    if (name != null) {
+      return new ResponseEntity<>(this.contactService.searchContacts(name, pageSize), HttpStatus.OK);
+    }
+
+    final List<Contact> contacts = this.contactService.getContactPage(after, pageSize);
+
+    if (contacts.size() < pageSize) {
+      return new ResponseEntity<>(contacts, HttpStatus.OK);
+    }
+    final Long nextCursor = contacts.get(contacts.size() - 1).getId();
+    return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, nextCursor.toString()).body(contacts);
   }
 
   /**
-   * GET method to fetch contact by contactId
+   * GET method to export every contact, streamed from the database
+   *
+   * @param accept The encodings the client accepts; JSON, CBOR, Smile, CSV or NDJSON (optional)
+   * @returns A streamed array of all contacts, or all contacts as CSV or NDJSON lines
+   */
+  @GetMapping(value = "/export", produces = {
+    MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContactFormats.SMILE_VALUE,
+    ContactFormats.CSV_VALUE, ContactFormats.NDJSON_VALUE })
+  @Operation(
+    summary = "Export all contacts",
+    description = "Stream every contact ordered by id. Rows are written as they are read, so this works for tables of any size. Send Accept: application/cbor or application/x-jackson-smile for a binary encoding. Send Accept: text/csv or application/x-ndjson to have Postgres COPY the table straight to the response, the fastest way out."
+  )
+  public ResponseEntity<StreamingResponseBody> exportContacts(
+    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+  ) {
+    final MediaType format = this.contactFormats.negotiate(accept);
+    final StreamingResponseBody body = this.contactFormats.isCopyFormat(format)
+      ? out -> this.contactBulkService.exportContacts(out, format)
+      : out -> this.contactService.exportContacts(out, this.contactFormats.writerFor(format));
+    return ResponseEntity.ok().contentType(format).body(body);
+  }
+
+  /**
+   * GET method to suggest contacts for a typeahead
+   *
+   * @param prefix The text typed so far
+   * @param limit The maximum number of contacts to return (optional)
+   * @returns Contacts with a word in their name that starts with the prefix, or 503 while the index loads
+   */
+  @GetMapping("/suggest")
+  @Operation(
+    summary = "Suggest contacts",
+    description = "Complete a typed prefix against the start of any word of a contact name, ignoring case and accents. Served from memory, so it is cheap to call on every keystroke. At most " + MAX_SUGGEST_SIZE + " suggestions."
+  )
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Successfully returned the suggestions"),
+    @ApiResponse(responseCode = "503", description = "The suggest index is still loading",
+      content = @Content) })
+  public ResponseEntity<List<ContactSuggestionDto>> suggestContacts(
+    @RequestParam String prefix,
+    @RequestParam(defaultValue = "" + DEFAULT_SUGGEST_SIZE) int limit
+  ) {
+    if (!this.contactService.isSuggestIndexReady()) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+    final int size = Math.max(1, Math.min(limit, MAX_SUGGEST_SIZE));
+    return new ResponseEntity<>(this.contactService.suggestContacts(prefix, size), HttpStatus.OK);
+  }
+
+  /**
+   * GET method to search contacts by name, best matches first
+   *
+   * @param q The words to look for
+   * @param fuzzy Whether to also match names with misspelled words (optional)
+   * @param offset The next value returned with the previous page (optional)
+   * @param limit The maximum number of contacts to return (optional)
+   * @returns A page of matching contacts with their scores, or 400 if q has no words or offset is too deep
+   */
+  @GetMapping("/search")
+  @Operation(
+    summary = "Search contacts",
+    description = "Match every word of q against the start of a word of the name, in any order and ignoring case and accents. With fuzzy, names close to q also match, so typos still find the contact. Pages are ranked by relevance, up to " + MAX_SEARCH_DEPTH + " hits deep."
+  )
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Successfully returned the matching contacts"),
+    @ApiResponse(responseCode = "400", description = "No words to search for, or offset past the last page",
+      content = @Content) })
+  public ResponseEntity<ContactSearchPageDto> searchContacts(
+    @RequestParam String q,
+    @RequestParam(defaultValue = "true") boolean fuzzy,
+    @RequestParam(defaultValue = "0") int offset,
+    @RequestParam(defaultValue = "" + DEFAULT_SEARCH_SIZE) int limit
+  ) {
+    if (offset < 0 || offset >= MAX_SEARCH_DEPTH) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+    final int pageSize = Math.max(1, Math.min(Math.min(limit, MAX_SEARCH_SIZE), MAX_SEARCH_DEPTH - offset));
+    final Optional<ContactSearchPageDto> page = this.contactSearch.search(q, fuzzy, offset, pageSize);
+
+    if (!page.isPresent()) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+    if (page.get().getNext() != null && page.get().getNext() >= MAX_SEARCH_DEPTH) {
+      page.get().setNext(null);
+    }
+    return new ResponseEntity<>(page.get(), HttpStatus.OK);
+  }
+
+  /**
+   * GET method to fetch contact by contactId. The ETag is the contact version, so
+   * Spring answers a matching If-None-Match with 304 without writing the body.
    *
    * @param contactId The id of the contact to fetch
-   * @returns The requested contact or 404 NOT FOUND
+   * @returns The requested contact, 304 NOT MODIFIED or 404 NOT FOUND
    */
   @GetMapping("/{contactId}")
   @Operation(summary = "Fetch a contact by Id")
@@ -62,6 +225,8 @@ public class ContactController {
     @ApiResponse(responseCode = "200", description = "Successfully returned the contact",
       content = { @Content(mediaType = "application/json",
         schema = @Schema(implementation = Contact.class)) }),
+    @ApiResponse(responseCode = "304", description = "Contact matches the If-None-Match ETag",
+      content = @Content),
     @ApiResponse(responseCode = "404", description = "Contact not found",
       content = @Content) })
   public ResponseEntity<Contact> getContactById(@PathVariable Long contactId) {
@@ -70,14 +235,15 @@ public class ContactController {
     if (!contact.isPresent()) {
       return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
-    return new ResponseEntity<>(contact.get(), HttpStatus.OK);
+    return ResponseEntity.ok().eTag(ContactETags.of(contact.get())).body(contact.get());
   }
 
   /**
-   * POST method to create a contact
+   * POST method to create a contact. With contact.ingest.async.enabled the contact is
+   * queued and inserted shortly after the response.
    *
    * @param contact The details of the contact to create
-   * @returns The created contact, 400 if bad request, or 500 Internal Service Error
+   * @returns The created contact, 202 ACCEPTED with the queued contact, 400 if bad request, or 429 if the queue is full
    */
   @PostMapping
   @Operation(summary = "Create a new contact")
@@ -85,10 +251,23 @@ public class ContactController {
     @ApiResponse(responseCode = "200", description = "Successfully created and returned the contact",
       content = { @Content(mediaType = "application/json",
         schema = @Schema(implementation = Contact.class)) }),
+    @ApiResponse(responseCode = "202", description = "Contact queued for creation; returned with its id",
+      content = { @Content(mediaType = "application/json",
+        schema = @Schema(implementation = Contact.class)) }),
     @ApiResponse(responseCode = "400", description = "Invalid request; contact not created ",
+      content = @Content),
+    @ApiResponse(responseCode = "429", description = "Ingest queue is full; contact not created",
       content = @Content) })
-  public Contact createContact(@Valid @RequestBody CreateContactDto contact) {
-      return this.contactService.createContact(contact);
+  public ResponseEntity<Contact> createContact(@Valid @RequestBody CreateContactDto contact) {
+    if (this.contactIngestQueue == null) {
+      return new ResponseEntity<>(this.contactService.createContact(contact), HttpStatus.OK);
+    }
+
+    final Optional<Contact> queued = this.contactIngestQueue.enqueue(contact);
+    if (!queued.isPresent()) {
+      return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+    }
+    return new ResponseEntity<>(queued.get(), HttpStatus.ACCEPTED);
   }
 
   /**
@@ -96,7 +275,8 @@ public class ContactController {
    *
    * @param contactId The id of the contact to update
    * @param contactDetails The contact fields to update
-   * @returns The updated contact or 404 NOT FOUND
+   * @param ifMatch The ETags the contact must match to be updated (optional)
+   * @returns The updated contact, 404 NOT FOUND or 412 PRECONDITION FAILED
    */
   @PutMapping("/{contactId}")
   @Operation(summary = "Update a contact by id")
@@ -107,21 +287,27 @@ public class ContactController {
     @ApiResponse(responseCode = "400", description = "Invalid id supplied",
       content = @Content),
     @ApiResponse(responseCode = "404", description = "Contact not found",
+      content = @Content),
+    @ApiResponse(responseCode = "412", description = "Contact does not match the If-Match ETag",
       content = @Content) })
-  public ResponseEntity<Contact> updateContact(@PathVariable Long contactId, @Valid @RequestBody UpdateContactDto contactDto) {
-    final Optional<Contact> contactQuery = this.contactService.getContactById (contactId);
-    if (!contactQuery.isPresent()) {
-      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+  public ResponseEntity<Contact> updateContact(
+    @PathVariable Long contactId,
+    @Valid @RequestBody UpdateContactDto contactDto,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) {
+    final List<Long> expectedVersions = ContactETags.parseIfMatch(ifMatch);
+    final Optional<Contact> contact = this.contactService.updateContact(contactId, contactDto, expectedVersions);
+    if (!contact.isPresent()) {
+      return new ResponseEntity<>(preconditionFailedOrNotFound(contactId, expectedVersions));
     }
-
-    final Contact contact = this.contactService.updateContact(contactQuery.get(), contactDto);
-    return new ResponseEntity<>(contact, HttpStatus.OK);
+    return ResponseEntity.ok().eTag(ContactETags.of(contact.get())).body(contact.get());
   }
 
   /**
    * DELETE method to delete a contact
    *
    * @param contactId The id of the contact to delete
+   * @param ifMatch The ETags the contact must match to be deleted (optional)
    */
   @DeleteMapping("/{contactId}")
   @Operation(summary = "Delete a contact by id")
@@ -132,13 +318,102 @@ public class ContactController {
     @ApiResponse(responseCode = "400", description = "Invalid id supplied",
       content = @Content),
     @ApiResponse(responseCode = "404", description = "Contact not found",
+      content = @Content),
+    @ApiResponse(responseCode = "412", description = "Contact does not match the If-Match ETag",
       content = @Content) })
-  public ResponseEntity<Void> deleteContact(@PathVariable Long contactId) {
-    final Optional<Contact> contactQuery = this.contactService.getContactById (contactId);
-    if (!contactQuery.isPresent()) {
-      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+  public ResponseEntity<Void> deleteContact(
+    @PathVariable Long contactId,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) {
+    final List<Long> expectedVersions = ContactETags.parseIfMatch(ifMatch);
+    if (!this.contactService.deleteContact(contactId, expectedVersions)) {
+      return new ResponseEntity<>(preconditionFailedOrNotFound(contactId, expectedVersions));
+    }
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
+
+  /**
+   * POST method to create many contacts in one request
+   *
+   * @param contacts The details of the contacts to create
+   * @returns One result per contact in request order, or 400 if there are too many contacts
+   */
+  @PostMapping("/batch")
+  @Operation(
+    summary = "Create contacts in bulk",
+    description = "Each item gets its own status: 200 with the created contact, or 400 if it is invalid. At most " + MAX_BATCH_SIZE + " items per request."
+  )
+  public ResponseEntity<List<ContactBatchResultDto>> createContacts(@RequestBody List<CreateContactDto> contacts) {
+    if (contacts.size() > MAX_BATCH_SIZE) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+    return new ResponseEntity<>(this.contactService.createContacts(contacts), HttpStatus.OK);
+  }
+
+  /**
+   * PUT method to update many contacts in one request
+   *
+   * @param contacts The ids and new details of the contacts to update
+   * @returns One result per contact in request order, or 400 if there are too many contacts
+   */
+  @PutMapping("/batch")
+  @Operation(
+    summary = "Update contacts in bulk",
+    description = "Each item gets its own status: 200 with the updated contact, 400 if it is invalid, or 404 if the contact does not exist. At most " + MAX_BATCH_SIZE + " items per request."
+  )
+  public ResponseEntity<List<ContactBatchResultDto>> updateContacts(@RequestBody List<BatchUpdateContactDto> contacts) {
+    if (contacts.size() > MAX_BATCH_SIZE) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+    return new ResponseEntity<>(this.contactService.updateContacts(contacts), HttpStatus.OK);
+  }
+
+  /**
+   * DELETE method to delete many contacts in one request
+   *
+   * @param contactIds The ids of the contacts to delete
+   * @returns One result per id in request order, or 400 if there are too many ids
+   */
+  @DeleteMapping("/batch")
+  @Operation(
+    summary = "Delete contacts in bulk",
+    description = "Each id gets its own status: 204 if the contact was deleted, or 404 if it does not exist. At most " + MAX_BATCH_SIZE + " ids per request."
+  )
+  public ResponseEntity<List<ContactBatchResultDto>> deleteContacts(@RequestBody List<Long> contactIds) {
+    if (contactIds.size() > MAX_BATCH_SIZE) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+    return new ResponseEntity<>(this.contactService.deleteContacts(contactIds), HttpStatus.OK);
+  }
+
+  /**
+   * POST method to import contacts from a CSV or NDJSON file of any size
+   *
+   * @param contentType text/csv or application/x-ndjson
+   * @param body The file, read as it arrives
+   * @returns The number of contacts created, and the lines rejected with their errors
+   */
+  @PostMapping(value = "/import", consumes = { ContactFormats.CSV_VALUE, ContactFormats.NDJSON_VALUE })
+  @Operation(
+    summary = "Import contacts",
+    description = "Create a contact per line of a UTF-8 body. CSV needs a header with a name column; NDJSON needs an object with a name per line. Other columns and fields are ignored, so an export can be imported as is. Valid lines are loaded with Postgres COPY in chunks that commit on their own, and invalid lines are reported by line number without stopping the import. If a chunk fails to load, its lines are reported as a range and the import stops; the chunks before it stay imported, so a retry can resume from the first line of the range."
+  )
+  public ResponseEntity<ContactImportResultDto> importContacts(
+    @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+    InputStream body
+  ) throws IOException {
+    final MediaType format = MediaType.parseMediaType(contentType);
+    return new ResponseEntity<>(this.contactBulkService.importContacts(body, format), HttpStatus.OK);
+  }
+
+  /**
+   * A conditional write that touched no rows failed either because the contact is gone
+   * or because its version moved on. Only the failure path pays for telling them apart.
+   */
+  private HttpStatus preconditionFailedOrNotFound(Long contactId, List<Long> expectedVersions) {
+    if (expectedVersions != null && this.contactService.contactExists(contactId)) {
+      return HttpStatus.PRECONDITION_FAILED;
     }
-      this.contactService.deleteContact(contactId);
-      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    return HttpStatus.NOT_FOUND;
   }
 }
@@ -0,0 +1,44 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ETag of a contact is its version as a strong entity tag, e.g. "3"
+ */
+public final class ContactETags {
+  private ContactETags() {
+
+  }
+
+  public static String of(Contact contact) {
+    return "\"" + contact.getVersion() + "\"";
+  }
+
+  /**
+   * Parse an If-Match header into the contact versions it accepts
+   *
+   * @param ifMatch The If-Match header value
+   * @returns null if any version matches, otherwise the versions of the strong ETags in the header
+   */
+  public static List<Long> parseIfMatch(String ifMatch) {
+    if (ifMatch == null || ifMatch.trim().equals("*")) {
+      return null;
+    }
+
+    final List<Long> versions = new ArrayList<>();
+    for (String tag : ifMatch.split(",")) {
+      final String trimmed = tag.trim();
+      // If-Match uses strong comparison, so weak ETags never match
+      if (trimmed.length() < 2 || !trimmed.startsWith("\"") || !trimmed.endsWith("\"")) {
+        continue;
+      }
+      try {
+        versions.add(Long.parseLong(trimmed.substring(1, trimmed.length() - 1)));
+      } catch (NumberFormatException e) {
+        // Not an ETag this API issued, so it cannot match
+      }
+    }
+    return versions;
+  }
+}
@@ -0,0 +1,118 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * The encodings contacts can be written in. JSON is the default; CBOR and Smile encode
+ * the same structure in binary, which is smaller and cheaper to write and parse for
+ * service-to-service callers.
+ *
+ * Spring MVC registers CBOR and Smile message converters on its own when the Jackson
+ * data formats are on the classpath, so this is only needed where the body is streamed.
+ * The contact writers are built once: each has its serializer resolved up front, and
+ * none flushes after every value, which would push each row of a streamed array to
+ * the socket, and through gzip, on its own. The binary writers are built from the
+ * same Boot-configured builder as the JSON mapper, so spring.jackson.* applies to all.
+ *
+ * CSV and NDJSON have no writer: Postgres writes and reads them itself through COPY,
+ * see ContactBulkService.
+ */
+@Component
+public class ContactFormats {
+  public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+  public static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+
+  public static final String CSV_VALUE = "text/csv";
+
+  public static final MediaType CSV = MediaType.valueOf(CSV_VALUE);
+
+  public static final String NDJSON_VALUE = MediaType.APPLICATION_NDJSON_VALUE;
+
+  public static final MediaType NDJSON = MediaType.APPLICATION_NDJSON;
+
+  private final Map<MediaType, ObjectWriter> writers = new LinkedHashMap<>();
+
+  private final List<MediaType> formats = new ArrayList<>();
+
+  /**
+   * @param objectMapper The JSON mapper
+   * @param builder A builder configured like the JSON mapper, which this changes to build the binary ones
+   */
+  public ContactFormats(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+    writers.put(MediaType.APPLICATION_JSON, contactWriter(objectMapper));
+    writers.put(MediaType.APPLICATION_CBOR, contactWriter(builder.factory(new CBORFactory()).build()));
+    writers.put(SMILE, contactWriter(builder.factory(new SmileFactory()).build()));
+    formats.addAll(writers.keySet());
+    formats.add(CSV);
+    formats.add(NDJSON);
+  }
+
+  /**
+   * Pick the encoding for an Accept header
+   *
+   * @param accept The Accept header value (optional)
+   * @returns The most preferred encoding the client accepts, JSON if it accepts none of them.
+   *   An encoding whose most specific matching range has q=0 is not accepted.
+   */
+  public MediaType negotiate(String accept) {
+    if (accept == null) {
+      return MediaType.APPLICATION_JSON;
+    }
+
+    final List<MediaType> accepted;
+    try {
+      accepted = MediaType.parseMediaTypes(accept);
+    } catch (InvalidMediaTypeException e) {
+      return MediaType.APPLICATION_JSON;
+    }
+    MediaType.sortBySpecificityAndQuality(accepted);
+
+    final Set<MediaType> refused = new HashSet<>();
+    for (MediaType acceptable : accepted) {
+      for (MediaType format : formats) {
+        if (!acceptable.includes(format) || refused.contains(format)) {
+          continue;
+        }
+        if (acceptable.getQualityValue() == 0) {
+          // Refused, even if a wildcard later in the list would accept it
+          refused.add(format);
+          continue;
+        }
+        return format;
+      }
+    }
+    return MediaType.APPLICATION_JSON;
+  }
+
+  /**
+   * @returns The writer of single contacts in the format, or null for the formats written by COPY
+   */
+  public ObjectWriter writerFor(MediaType format) {
+    return writers.get(format);
+  }
+
+  public boolean isCopyFormat(MediaType format) {
+    return CSV.equals(format) || NDJSON.equals(format);
+  }
+
+  private static ObjectWriter contactWriter(ObjectMapper mapper) {
+    return mapper.writerFor(Contact.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+}
@@ -0,0 +1,207 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import com.cristinasatterfield.technicalassessment.datasource.PrimaryReads;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cuts the queries behind bursts of identical or similar reads.
+ *
+ * Identical lookups and searches in flight at the same time share one query through
+ * SingleFlight. Lookups of different ids that arrive within the batch window are
+ * gathered into one SELECT ... WHERE id = ANY(?). Batching only starts while another
+ * lookup is already running, so a lone lookup never waits. The first lookup of a
+ * batch waits out the window and runs the query on its own thread, so batching needs
+ * no extra threads and costs at most the window in latency; a batch that fills up
+ * first is run at once by the lookup that filled it. Results are shared
+ * between callers and must not be modified.
+ *
+ * Lookups are grouped by whether the caller must read from the primary, so batching
+ * never moves a read-your-writes read onto a replica.
+ */
+@Component
+public class ContactReadCoalescer {
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate readOnlyTransaction;
+
+  private final long batchWindowNanos;
+
+  private final int maxBatchSize;
+
+  private final SingleFlight<List<Object>, Optional<Contact>> lookups;
+
+  private final SingleFlight<List<Object>, List<Contact>> searches;
+
+  private final DistributionSummary batchSizes;
+
+  private final AtomicInteger running = new AtomicInteger();
+
+  /**
+   * The batch being gathered, keyed by whether it reads from the primary
+   */
+  private final Map<Boolean, Batch> batches = new HashMap<>();
+
+  public ContactReadCoalescer(
+    JdbcTemplate jdbcTemplate,
+    PlatformTransactionManager transactionManager,
+    @Value("${contact.read.batch-window:1ms}") Duration batchWindow,
+    @Value("${contact.read.max-batch-size:100}") int maxBatchSize,
+    MeterRegistry registry
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.batchWindowNanos = batchWindow.toNanos();
+    this.maxBatchSize = maxBatchSize;
+    this.lookups = new SingleFlight<>("lookup", registry);
+    this.searches = new SingleFlight<>("search", registry);
+    this.batchSizes = DistributionSummary.builder("contact.reads.batch.size")
+      .description("Contact ids fetched per batched lookup query")
+      .register(registry);
+  }
+
+  public Optional<Contact> getById(Long contactId) {
+    final boolean primary = PrimaryReads.isForced();
+    return lookups.execute(Arrays.asList(contactId, primary), () -> load(contactId, primary));
+  }
+
+  /**
+   * Run a search, or join an identical one in flight. The loader runs in a read-only
+   * transaction, so only the caller that runs the query takes a connection.
+   */
+  public List<Contact> search(String name, int limit, Supplier<List<Contact>> loader) {
+    return searches.execute(Arrays.asList(name, limit, PrimaryReads.isForced()),
+      () -> readOnlyTransaction.execute(status -> loader.get()));
+  }
+
+  /**
+   * Make later lookups of a contact query again rather than join a lookup that
+   * started before it was written
+   */
+  public void forget(Long contactId) {
+    lookups.forget(Arrays.asList(contactId, true));
+    lookups.forget(Arrays.asList(contactId, false));
+  }
+
+  private Optional<Contact> load(Long contactId, boolean primary) {
+    final boolean alone = running.getAndIncrement() == 0;
+    try {
+      if (alone || batchWindowNanos <= 0) {
+        return Optional.ofNullable(query(Arrays.asList(contactId)).get(contactId));
+      }
+      return loadInBatch(contactId, primary);
+    } finally {
+      running.decrementAndGet();
+    }
+  }
+
+  private Optional<Contact> loadInBatch(Long contactId, boolean primary) {
+    final CompletableFuture<Optional<Contact>> result = new CompletableFuture<>();
+    final Batch batch;
+    final boolean leader;
+    final boolean full;
+    synchronized (batches) {
+      final Batch gathering = batches.get(primary);
+      leader = gathering == null;
+      batch = leader ? new Batch(Thread.currentThread()) : gathering;
+      batch.add(contactId, result);
+      full = batch.size() >= maxBatchSize;
+      if (leader && !full) {
+        batches.put(primary, batch);
+      } else if (full) {
+        batches.remove(primary, batch);
+      }
+    }
+
+    if (full) {
+      flush(batch);
+      if (!leader) {
+        // The leader's result is ready, so it need not wait out the window
+        LockSupport.unpark(batch.leader);
+      }
+    } else if (leader) {
+      final long deadline = System.nanoTime() + batchWindowNanos;
+      long remaining = batchWindowNanos;
+      // Until the window ends, or a lookup fills the batch, runs it and wakes this one
+      while (remaining > 0 && !result.isDone()) {
+        LockSupport.parkNanos(batch, remaining);
+        remaining = deadline - System.nanoTime();
+      }
+      final boolean taken;
+      synchronized (batches) {
+        taken = !batches.remove(primary, batch);
+      }
+      // A full batch is flushed by whoever filled it
+      if (!taken) {
+        flush(batch);
+      }
+    }
+    return SingleFlight.join(result);
+  }
+
+  private void flush(Batch batch) {
+    batchSizes.record(batch.ids.size());
+    try {
+      final Map<Long, Contact> found = query(batch.ids);
+      for (int i = 0; i < batch.ids.size(); i++) {
+        batch.results.get(i).complete(Optional.ofNullable(found.get(batch.ids.get(i))));
+      }
+    } catch (RuntimeException | Error e) {
+      batch.results.forEach(result -> result.completeExceptionally(e));
+    }
+  }
+
+  private Map<Long, Contact> query(List<Long> ids) {
+    final List<Contact> contacts = readOnlyTransaction.execute(status -> jdbcTemplate.query(connection -> {
+      final PreparedStatement statement = connection.prepareStatement("SELECT id, name, version FROM contact WHERE id = ANY(?)");
+      statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+      return statement;
+    }, ContactService.CONTACT_ROW_MAPPER));
+
+    final Map<Long, Contact> found = new HashMap<>();
+    contacts.forEach(contact -> found.put(contact.getId(), contact));
+    return found;
+  }
+
+  private static final class Batch {
+    private final Thread leader;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    private final List<CompletableFuture<Optional<Contact>>> results = new ArrayList<>();
+
+    private Batch(Thread leader) {
+      this.leader = leader;
+    }
+
+    private void add(Long contactId, CompletableFuture<Optional<Contact>> result) {
+      ids.add(contactId);
+      results.add(result);
+    }
+
+    private int size() {
+      return ids.size();
+    }
+  }
+}
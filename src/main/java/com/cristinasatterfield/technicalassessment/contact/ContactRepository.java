@@ -1,11 +1,20 @@
 package com.cristinasatterfield.technicalassessment.contact;
 
-import java.util.List;
-
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Finders run in read-only transactions so they can be served by a read replica.
+ * The inherited write methods keep their own read-write transactions.
+ */
 @Repository
+@Transactional(readOnly = true)
 public interface ContactRepository extends JpaRepository<Contact, Long> {
-  List<Contact> findByNameContainingIgnoreCase(String name);
+  /**
+   * Build the LIKE pattern for a name search, escaping the LIKE wildcards in the term
+   */
+  static String containsPattern(String name) {
+    return "%" + name.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+  }
 }
@@ -1,42 +1,462 @@
 package com.cristinasatterfield.technicalassessment.contact;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import com.cristinasatterfield.technicalassessment.contact.dto.BatchUpdateContactDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactBatchResultDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSuggestionDto;
 import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
 import com.cristinasatterfield.technicalassessment.contact.dto.UpdateContactDto;
+import com.cristinasatterfield.technicalassessment.contact.suggest.ContactSuggestIndex;
+import com.cristinasatterfield.technicalassessment.datasource.StatementTimeouts;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service
 public class ContactService {
+  /**
+   * Number of rows pulled per round trip while exporting. Postgres only honours the
+   * fetch size inside a transaction, which is why the export runs in one.
+   */
+  private static final int EXPORT_FETCH_SIZE = 1000;
+
+  /**
+   * Number of batch items written per transaction. Hibernate splits each chunk into
+   * JDBC batches of hibernate.jdbc.batch_size statements.
+   */
+  private static final int BATCH_CHUNK_SIZE = 1000;
+
+  /**
+   * Case insensitive substring search, ranked by trigram similarity. The predicate
+   * matches the expression of contact_name_trgm_idx so the GIN index is used.
+   */
+  private static final String SEARCH_SQL = "SELECT id, name, version FROM contact WHERE lower(name) LIKE lower(?) "
+    + "ORDER BY similarity(lower(name), lower(?)) DESC, id LIMIT ?";
+
+  private static final String PAGE_SQL = "SELECT id, name, version FROM contact WHERE id > ? ORDER BY id LIMIT ?";
+
+  /**
+   * Maps a row straight to a detached contact. Reads use this rather than the
+   * repository so they skip the persistence context: no entity entry, key or loaded
+   * state snapshot is kept for a contact that is only serialized.
+   */
+  static final RowMapper<Contact> CONTACT_ROW_MAPPER = (resultSet, rowNum) -> {
+    final Contact contact = new Contact();
+    contact.setId(resultSet.getLong("id"));
+    contact.setName(resultSet.getString("name"));
+    contact.setVersion(resultSet.getLong("version"));
+    return contact;
+  };
+
   @Autowired
   private ContactRepository contactRepository;
 
-  public List<Contact> getAllContacts(String name) {
-    if (name == null) {
-      return contactRepository.findAll();
-    }
-    return contactRepository.findByNameContainingIgnoreCase(name);
+  @Autowired
+  private ContactCache contactCache;
+
+  @Autowired
+  private ContactReadCoalescer readCoalescer;
+
+  @Autowired
+  private ContactSuggestIndex suggestIndex;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private Validator validator;
+
+  @Autowired
+  private StatementTimeouts statementTimeouts;
+
+  /**
+   * Fetch the contacts whose name contains the search term, most similar first
+   *
+   * @param name The search term
+   * @param limit The maximum number of contacts to return
+   * @returns Up to limit matching contacts
+   */
+  @Timed(value = "contact.service", histogram = true)
+  public List<Contact> searchContacts(String name, int limit) {
+    return readCoalescer.search(name, limit, () -> {
+      statementTimeouts.forSearch(jdbcTemplate);
+      return jdbcTemplate.query(SEARCH_SQL, CONTACT_ROW_MAPPER, ContactRepository.containsPattern(name), name, limit);
+    });
   }
 
+  /**
+   * Fetch the contacts with a word in their name that starts with the prefix, from
+   * the in-memory suggest index
+   *
+   * @param prefix The text typed so far
+   * @param limit The maximum number of contacts to return
+   * @returns Up to limit contacts in name order
+   */
+  @Timed(value = "contact.service", histogram = true)
+  public List<ContactSuggestionDto> suggestContacts(String prefix, int limit) {
+    return suggestIndex.suggest(prefix, limit);
+  }
+
+  /**
+   * Whether the suggest index has finished loading
+   */
+  public boolean isSuggestIndexReady() {
+    return suggestIndex.isReady();
+  }
+
+  /**
+   * Fetch one page of contacts ordered by id, starting after the given cursor
+   *
+   * @param after The id of the last contact of the previous page (optional)
+   * @param limit The maximum number of contacts to return
+   * @returns Up to limit contacts with an id greater than after
+   */
+  @Transactional(readOnly = true)
+  @Timed(value = "contact.service", histogram = true)
+  public List<Contact> getContactPage(Long after, int limit) {
+    final long cursor = after == null ? Long.MIN_VALUE : after;
+    return jdbcTemplate.query(PAGE_SQL, CONTACT_ROW_MAPPER, cursor, limit);
+  }
+
+  /**
+   * Write every contact to the stream as an array, one row at a time, so the table
+   * is never held in memory
+   *
+   * @param out The stream to write the array to
+   * @param writer The contact writer for the encoding to write, e.g. JSON or CBOR, from ContactFormats
+   */
+  @Transactional(readOnly = true)
+  @Timed(value = "contact.service", histogram = true)
+  public void exportContacts(OutputStream out, ObjectWriter writer) throws IOException {
+    statementTimeouts.forBulk(jdbcTemplate);
+    final JsonGenerator generator = writer.createGenerator(out);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.writeStartArray();
+
+    final JdbcTemplate cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+    cursorTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+    cursorTemplate.query("SELECT id, name, version FROM contact ORDER BY id", resultSet -> {
+      try {
+        writer.writeValue(generator, CONTACT_ROW_MAPPER.mapRow(resultSet, 0));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    generator.writeEndArray();
+    generator.close();
+  }
+
+  @Timed(value = "contact.service", histogram = true)
   public Optional<Contact> getContactById(Long contactId) {
-    return contactRepository.findById(contactId);
+    return contactCache.get(contactId, () -> readCoalescer.getById(contactId));
   }
 
+  @Timed(value = "contact.service", histogram = true)
   public Contact createContact(CreateContactDto contactDto) {
     Contact contact = new Contact();
     contact.setName(contactDto.getName());
-    return contactRepository.save(contact);
+    final Contact created = contactRepository.save(contact);
+    contactCache.put(created);
+    suggestIndex.put(created.getId(), created.getName());
+    return created;
   }
 
-  public Contact updateContact(Contact contact, UpdateContactDto contactDto) {
-    contact.setName(contactDto.getName());
-    return contactRepository.save(contact);
+  /**
+   * Insert contacts whose ids were already allocated with a single multi-row INSERT.
+   * Ids that already exist are skipped, so replaying a batch after a crash between
+   * the insert and its removal from the ingest log is harmless.
+   *
+   * @param contacts The contacts to insert
+   */
+  @Timed(value = "contact.service", histogram = true)
+  public void insertContacts(List<Contact> contacts) {
+    if (contacts.isEmpty()) {
+      return;
+    }
+
+    final StringBuilder sql = new StringBuilder("INSERT INTO contact (id, name, version) VALUES ");
+    final Object[] args = new Object[contacts.size() * 2];
+    for (int i = 0; i < contacts.size(); i++) {
+      sql.append(i == 0 ? "(?, ?, 0)" : ", (?, ?, 0)");
+      args[i * 2] = contacts.get(i).getId();
+      args[i * 2 + 1] = contacts.get(i).getName();
+    }
+    sql.append(" ON CONFLICT (id) DO NOTHING");
+
+    jdbcTemplate.update(sql.toString(), args);
+    contacts.forEach(contact -> suggestIndex.put(contact.getId(), contact.getName()));
+  }
+
+  /**
+   * Update a contact with a single UPDATE ... RETURNING statement
+   *
+   * @param contactId The id of the contact to update
+   * @param contactDto The contact fields to update
+   * @param expectedVersions The versions the contact must be at, or null to update any version
+   * @returns The updated contact, or empty if no contact has that id and an expected version
+   */
+  @Timed(value = "contact.service", histogram = true)
+  public Optional<Contact> updateContact(Long contactId, UpdateContactDto contactDto, List<Long> expectedVersions) {
+    final Optional<Contact> updated;
+    if (expectedVersions == null) {
+      updated = jdbcTemplate
+        .query("UPDATE contact SET name = ?, version = version + 1 WHERE id = ? RETURNING id, name, version",
+          CONTACT_ROW_MAPPER, contactDto.getName(), contactId)
+        .stream()
+        .findFirst();
+    } else if (expectedVersions.isEmpty()) {
+      updated = Optional.empty();
+    } else {
+      updated = namedParameterJdbcTemplate
+        .query("UPDATE contact SET name = :name, version = version + 1 WHERE id = :id AND version IN (:versions) RETURNING id, name, version",
+          Map.of("name", contactDto.getName(), "id", contactId, "versions", expectedVersions), CONTACT_ROW_MAPPER)
+        .stream()
+        .findFirst();
+    }
+
+    readCoalescer.forget(contactId);
+    updated.ifPresent(contact -> {
+      contactCache.put(contact);
+      suggestIndex.put(contact.getId(), contact.getName());
+    });
+    return updated;
+  }
+
+  /**
+   * Delete a contact with a single DELETE statement
+   *
+   * @param contactId The id of the contact to delete
+   * @param expectedVersions The versions the contact must be at, or null to delete any version
+   * @returns Whether a contact with that id and an expected version existed
+   */
+  @Timed(value = "contact.service", histogram = true)
+  public boolean deleteContact(Long contactId, List<Long> expectedVersions) {
+    final int deleted;
+    if (expectedVersions == null) {
+      deleted = jdbcTemplate.update("DELETE FROM contact WHERE id = ?", contactId);
+    } else if (expectedVersions.isEmpty()) {
+      deleted = 0;
+    } else {
+      deleted = namedParameterJdbcTemplate.update("DELETE FROM contact WHERE id = :id AND version IN (:versions)",
+        Map.of("id", contactId, "versions", expectedVersions));
+    }
+
+    evict(contactId);
+    if (deleted > 0) {
+      suggestIndex.remove(contactId);
+    }
+    return deleted > 0;
+  }
+
+  @Timed(value = "contact.service", histogram = true)
+  public boolean contactExists(Long contactId) {
+    return contactRepository.existsById(contactId);
+  }
+
+  /**
+   * Create contacts in chunks, one transaction per chunk
+   *
+   * @param contactDtos The details of the contacts to create
+   * @returns One result per item, in request order
+   */
+  @Timed(value = "contact.service", histogram = true)
+  public List<ContactBatchResultDto> createContacts(List<CreateContactDto> contactDtos) {
+    final List<ContactBatchResultDto> results = new ArrayList<>(contactDtos.size());
+    for (List<CreateContactDto> chunk : chunk(contactDtos)) {
+      final List<ContactBatchResultDto> chunkResults = transactionTemplate.execute(status -> createChunk(chunk));
+      // Indexed as each chunk commits, so a later chunk failing leaves no committed contact out
+      indexWritten(chunkResults);
+      results.addAll(chunkResults);
+    }
+    return results;
+  }
+
+  /**
+   * Update contacts in chunks, one transaction per chunk
+   *
+   * @param contactDtos The ids and new details of the contacts to update
+   * @returns One result per item, in request order
+   */
+  @Timed(value = "contact.service", histogram = true)
+  public List<ContactBatchResultDto> updateContacts(List<BatchUpdateContactDto> contactDtos) {
+    final List<ContactBatchResultDto> results = new ArrayList<>(contactDtos.size());
+    for (List<BatchUpdateContactDto> chunk : chunk(contactDtos)) {
+      final List<ContactBatchResultDto> chunkResults = transactionTemplate.execute(status -> updateChunk(chunk));
+      chunk.stream()
+        .map(BatchUpdateContactDto::getId)
+        .filter(id -> id != null)
+        .forEach(this::evict);
+      indexWritten(chunkResults);
+      results.addAll(chunkResults);
+    }
+    return results;
+  }
+
+  /**
+   * Delete contacts in chunks, one statement and transaction per chunk
+   *
+   * @param contactIds The ids of the contacts to delete
+   * @returns One result per item, in request order
+   */
+  @Timed(value = "contact.service", histogram = true)
+  public List<ContactBatchResultDto> deleteContacts(List<Long> contactIds) {
+    final List<ContactBatchResultDto> results = new ArrayList<>(contactIds.size());
+    for (List<Long> chunk : chunk(contactIds)) {
+      final List<ContactBatchResultDto> chunkResults = transactionTemplate.execute(status -> deleteChunk(chunk));
+      chunk.stream().filter(id -> id != null).forEach(this::evict);
+      indexWritten(chunkResults);
+      results.addAll(chunkResults);
+    }
+    return results;
+  }
+
+  private List<ContactBatchResultDto> createChunk(List<CreateContactDto> chunk) {
+    final List<String> errors = new ArrayList<>(chunk.size());
+    final List<Contact> contacts = new ArrayList<>(chunk.size());
+    for (CreateContactDto contactDto : chunk) {
+      final String error = validate(contactDto);
+      errors.add(error);
+      if (error == null) {
+        final Contact contact = new Contact();
+        contact.setName(contactDto.getName());
+        contacts.add(contact);
+      }
+    }
+
+    // Ids are assigned from the pooled sequence here; the inserts are batched on commit
+    contactRepository.saveAll(contacts);
+
+    final List<ContactBatchResultDto> results = new ArrayList<>(chunk.size());
+    int created = 0;
+    for (String error : errors) {
+      results.add(error == null
+        ? ContactBatchResultDto.success(HttpStatus.OK, contacts.get(created++))
+        : ContactBatchResultDto.failure(HttpStatus.BAD_REQUEST, null, error));
+    }
+    return results;
+  }
+
+  private List<ContactBatchResultDto> updateChunk(List<BatchUpdateContactDto> chunk) {
+    final Set<Long> ids = chunk.stream()
+      .map(BatchUpdateContactDto::getId)
+      .filter(id -> id != null)
+      .collect(Collectors.toSet());
+    final Map<Long, Contact> contacts = contactRepository.findAllById(ids).stream()
+      .collect(Collectors.toMap(Contact::getId, Function.identity()));
+
+    final List<ContactBatchResultDto> results = new ArrayList<>(chunk.size());
+    for (BatchUpdateContactDto contactDto : chunk) {
+      final String error = validate(contactDto);
+      if (error != null) {
+        results.add(ContactBatchResultDto.failure(HttpStatus.BAD_REQUEST, contactDto.getId(), error));
+        continue;
+      }
+
+      final Contact contact = contacts.get(contactDto.getId());
+      if (contact == null) {
+        results.add(ContactBatchResultDto.failure(HttpStatus.NOT_FOUND, contactDto.getId(), "Contact not found"));
+        continue;
+      }
+      contact.setName(contactDto.getName());
+      results.add(ContactBatchResultDto.success(HttpStatus.OK, contact));
+    }
+    // Dirty checking flushes the changed contacts as batched updates on commit
+    return results;
+  }
+
+  private List<ContactBatchResultDto> deleteChunk(List<Long> chunk) {
+    final List<Long> ids = chunk.stream().filter(id -> id != null).collect(Collectors.toList());
+    final Set<Long> deleted = ids.isEmpty()
+      ? Collections.emptySet()
+      : new HashSet<>(namedParameterJdbcTemplate.queryForList(
+        "DELETE FROM contact WHERE id IN (:ids) RETURNING id", Map.of("ids", ids), Long.class));
+
+    final List<ContactBatchResultDto> results = new ArrayList<>(chunk.size());
+    for (Long id : chunk) {
+      if (id == null) {
+        results.add(ContactBatchResultDto.failure(HttpStatus.BAD_REQUEST, null, "id must not be null"));
+      } else if (deleted.contains(id)) {
+        results.add(ContactBatchResultDto.deleted(id));
+      } else {
+        results.add(ContactBatchResultDto.failure(HttpStatus.NOT_FOUND, id, "Contact not found"));
+      }
+    }
+    return results;
   }
 
-  public void deleteContact(Long contactId) {
-    contactRepository.deleteById(contactId);
+  /**
+   * Drop a written contact from the cache and from any lookup in flight
+   */
+  private void evict(Long contactId) {
+    contactCache.invalidate(contactId);
+    readCoalescer.forget(contactId);
+  }
+
+  /**
+   * Apply the successful items of a committed chunk to the suggest index
+   */
+  private void indexWritten(List<ContactBatchResultDto> results) {
+    for (ContactBatchResultDto result : results) {
+      if (result.getStatus() == HttpStatus.NO_CONTENT.value()) {
+        suggestIndex.remove(result.getId());
+      } else if (result.getContact() != null) {
+        suggestIndex.put(result.getId(), result.getContact().getName());
+      }
+    }
+  }
+
+  /**
+   * @returns The first constraint violation of the item as a message, or null if it is valid
+   */
+  private String validate(Object contactDto) {
+    if (contactDto == null) {
+      return "item must not be null";
+    }
+    final Set<ConstraintViolation<Object>> violations = validator.validate(contactDto);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    final ConstraintViolation<Object> violation = violations.iterator().next();
+    return violation.getPropertyPath() + " " + violation.getMessage();
+  }
+
+  private static <T> List<List<T>> chunk(List<T> items) {
+    final List<List<T>> chunks = new ArrayList<>();
+    for (int i = 0; i < items.size(); i += BATCH_CHUNK_SIZE) {
+      chunks.add(items.subList(i, Math.min(i + BATCH_CHUNK_SIZE, items.size())));
+    }
+    return chunks;
   }
 }
@@ -0,0 +1,82 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Merges identical concurrent calls: the first caller for a key runs the loader and
+ * everyone who asks for the same key while it runs waits for and shares its result.
+ * Nothing is kept once the call finishes, so this never serves a result that was
+ * loaded before the caller asked.
+ *
+ * Calls are counted in contact.reads, tagged with the operation and whether the call
+ * was executed or coalesced into another.
+ */
+class SingleFlight<K, V> {
+  private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+  private final Counter executed;
+
+  private final Counter coalesced;
+
+  SingleFlight(String operation, MeterRegistry registry) {
+    this.executed = counter(operation, "executed", registry);
+    this.coalesced = counter(operation, "coalesced", registry);
+  }
+
+  V execute(K key, Supplier<V> loader) {
+    final CompletableFuture<V> flight = new CompletableFuture<>();
+    final CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+    if (existing != null) {
+      coalesced.increment();
+      return join(existing);
+    }
+
+    executed.increment();
+    try {
+      final V value = loader.get();
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      flights.remove(key, flight);
+    }
+  }
+
+  /**
+   * Stop later callers from joining the call in flight for a key, for example
+   * because a write has made its result stale
+   */
+  void forget(K key) {
+    flights.remove(key);
+  }
+
+  static <V> V join(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static Counter counter(String operation, String outcome, MeterRegistry registry) {
+    return Counter.builder("contact.reads")
+      .description("Contact reads, executed or coalesced into an identical read in flight")
+      .tag("operation", operation)
+      .tag("outcome", outcome)
+      .register(registry);
+  }
+}
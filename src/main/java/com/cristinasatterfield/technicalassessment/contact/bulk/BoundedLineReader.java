@@ -0,0 +1,85 @@
+package com.cristinasatterfield.technicalassessment.contact.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines ended by \n, \r\n or \r like BufferedReader.readLine, but keeps at most
+ * maxLength characters of each. The rest of a longer line is skipped without being
+ * held, so a body without line breaks cannot grow a single line until the heap runs out.
+ */
+final class BoundedLineReader {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+
+  private final int maxLength;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+
+  private final StringBuilder line = new StringBuilder();
+
+  private int position;
+
+  private int limit;
+
+  private boolean skipLineFeed;
+
+  private boolean tooLong;
+
+  BoundedLineReader(Reader reader, int maxLength) {
+    this.reader = reader;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * @returns The next line without its terminator, cut to maxLength characters, or null at the end of the stream
+   */
+  String readLine() throws IOException {
+    line.setLength(0);
+    tooLong = false;
+    boolean read = false;
+    while (true) {
+      if (position == limit && !fill()) {
+        return read ? line.toString() : null;
+      }
+      final char c = buffer[position++];
+      if (skipLineFeed) {
+        skipLineFeed = false;
+        if (c == '\n') {
+          continue;
+        }
+      }
+      read = true;
+      if (c == '\n') {
+        return line.toString();
+      }
+      if (c == '\r') {
+        skipLineFeed = true;
+        return line.toString();
+      }
+      if (line.length() < maxLength) {
+        line.append(c);
+      } else {
+        tooLong = true;
+      }
+    }
+  }
+
+  /**
+   * @returns Whether the last line read was longer than maxLength and was cut
+   */
+  boolean isTooLong() {
+    return tooLong;
+  }
+
+  private boolean fill() throws IOException {
+    final int count = reader.read(buffer, 0, buffer.length);
+    if (count <= 0) {
+      return false;
+    }
+    position = 0;
+    limit = count;
+    return true;
+  }
+}
@@ -0,0 +1,327 @@
+package com.cristinasatterfield.technicalassessment.contact.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactFormats;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactImportErrorDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactImportResultDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+import com.cristinasatterfield.technicalassessment.contact.ingest.ContactIdAllocator;
+import com.cristinasatterfield.technicalassessment.contact.suggest.ContactSuggestIndex;
+import com.cristinasatterfield.technicalassessment.datasource.StatementTimeouts;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Moves contacts in and out of the database with Postgres COPY, which skips per-row
+ * statement overhead entirely.
+ *
+ * Imports are read a line at a time and copied in chunks of COPY_CHUNK_SIZE, one
+ * transaction per chunk, and exports stream from the server straight to the caller,
+ * so neither holds more than a chunk in memory however large the file is.
+ */
+@Service
+public class ContactBulkService {
+  /**
+   * Number of contacts copied per transaction. A failed chunk rolls back on its own,
+   * so the chunks before it stay imported; the import stops there and reports the
+   * chunk's lines, so a retry can resume from the first of them.
+   */
+  static final int COPY_CHUNK_SIZE = 10000;
+
+  /**
+   * Number of rejected lines described in the result. The rest are only counted, so a
+   * file of nothing but bad lines does not fill the heap with errors.
+   */
+  static final int MAX_REPORTED_ERRORS = 1000;
+
+  /**
+   * Number of characters kept of a line. Longer lines are rejected, far beyond any
+   * real contact but short enough that a body without line breaks is not buffered whole.
+   */
+  static final int MAX_LINE_LENGTH = 65536;
+
+  private static final int COPY_BUFFER_SIZE = 65536;
+
+  /**
+   * Spreadsheet programs start UTF-8 CSV files with one
+   */
+  private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+  private static final String COPY_IN = "COPY contact (id, name) FROM STDIN WITH (FORMAT csv)";
+
+  private static final String COPY_OUT_CSV =
+    "COPY (SELECT id, name, version FROM contact ORDER BY id) TO STDOUT WITH (FORMAT csv, HEADER)";
+
+  /**
+   * One JSON object per row. CSV with a quote and delimiter that JSON always escapes
+   * writes each object unchanged, where the text format would escape its backslashes.
+   */
+  private static final String COPY_OUT_NDJSON =
+    "COPY (SELECT json_build_object('id', id, 'name', name, 'version', version) FROM contact ORDER BY id)"
+      + " TO STDOUT WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+
+  @Autowired
+  private ContactIdAllocator idAllocator;
+
+  @Autowired
+  private ContactSuggestIndex suggestIndex;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private Validator validator;
+
+  @Autowired
+  private StatementTimeouts statementTimeouts;
+
+  /**
+   * Create a contact for every valid line of a CSV or NDJSON body. A CSV body starts
+   * with a header naming its columns, of which only name is read; NDJSON objects only
+   * need a name. Other columns and fields, such as those of an export, are ignored.
+   *
+   * @param in The body to read
+   * @param format ContactFormats.CSV or ContactFormats.NDJSON
+   * @returns How many contacts were created, which lines were rejected, and the lines of a chunk that failed to load
+   */
+  @Timed(value = "contact.service", histogram = true)
+  public ContactImportResultDto importContacts(InputStream in, MediaType format) throws IOException {
+    final Import result = new Import();
+    final BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(in, StandardCharsets.UTF_8), MAX_LINE_LENGTH);
+    final boolean csv = ContactFormats.CSV.isCompatibleWith(format);
+    int nameColumn = csv ? -1 : 0;
+
+    String line;
+    long lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (reader.isTooLong()) {
+        result.reject(lineNumber, "line longer than " + MAX_LINE_LENGTH + " characters");
+        if (nameColumn < 0) {
+          break;
+        }
+        continue;
+      }
+      if (lineNumber == 1 && line.startsWith(BYTE_ORDER_MARK)) {
+        line = line.substring(1);
+      }
+      if (line.isBlank()) {
+        continue;
+      }
+
+      if (nameColumn < 0) {
+        nameColumn = headerNameColumn(line);
+        if (nameColumn < 0) {
+          result.reject(lineNumber, "header has no name column");
+          break;
+        }
+        continue;
+      }
+
+      final CreateContactDto contactDto;
+      try {
+        contactDto = csv ? parseCsv(line, nameColumn) : objectMapper.readValue(line, CreateContactDto.class);
+      } catch (JsonProcessingException e) {
+        result.reject(lineNumber, "malformed JSON: " + e.getOriginalMessage());
+        continue;
+      } catch (IllegalArgumentException e) {
+        result.reject(lineNumber, "malformed CSV: " + e.getMessage());
+        continue;
+      }
+
+      final String error = validate(contactDto);
+      if (error != null) {
+        result.reject(lineNumber, error);
+        continue;
+      }
+
+      final Contact contact = new Contact();
+      contact.setId(idAllocator.nextId());
+      contact.setName(contactDto.getName());
+      if (result.chunk.isEmpty()) {
+        result.chunkFirstLine = lineNumber;
+      }
+      result.chunk.add(contact);
+      result.chunkLastLine = lineNumber;
+      if (result.chunk.size() == COPY_CHUNK_SIZE && !copyIn(result)) {
+        return result.toDto();
+      }
+    }
+
+    copyIn(result);
+    return result.toDto();
+  }
+
+  /**
+   * Write every contact to the stream in id order, as CSV with a header or as NDJSON
+   *
+   * @param out The stream to write to
+   * @param format ContactFormats.CSV or ContactFormats.NDJSON
+   */
+  @Transactional(readOnly = true)
+  @Timed(value = "contact.service", histogram = true)
+  public void exportContacts(OutputStream out, MediaType format) {
+    final String sql = ContactFormats.CSV.isCompatibleWith(format) ? COPY_OUT_CSV : COPY_OUT_NDJSON;
+    statementTimeouts.forBulk(jdbcTemplate);
+    jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+      try {
+        return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * Copy the waiting contacts in one transaction
+   *
+   * @returns false if the copy failed, which is reported with the lines of the chunk
+   */
+  private boolean copyIn(Import result) {
+    if (result.chunk.isEmpty()) {
+      return true;
+    }
+
+    try {
+      copyIn(result.chunk);
+    } catch (RuntimeException e) {
+      result.rejectChunk("not imported, import stopped: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+      return false;
+    }
+
+    result.chunk.forEach(contact -> suggestIndex.put(contact.getId(), contact.getName()));
+    result.imported += result.chunk.size();
+    result.chunk.clear();
+    return true;
+  }
+
+  private void copyIn(List<Contact> chunk) {
+    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      statementTimeouts.forBulk(jdbcTemplate);
+      final StringBuilder row = new StringBuilder();
+      try (Writer writer = new OutputStreamWriter(
+        new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_IN, COPY_BUFFER_SIZE), StandardCharsets.UTF_8)) {
+        for (Contact contact : chunk) {
+          row.setLength(0);
+          row.append(contact.getId()).append(',');
+          ContactCsv.appendField(row, contact.getName()).append('\n');
+          writer.append(row);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return null;
+    }));
+  }
+
+  /**
+   * @returns The index of the name column in a CSV header, or -1 if it has none
+   */
+  private static int headerNameColumn(String header) {
+    try {
+      final List<String> columns = ContactCsv.parseLine(header);
+      for (int i = 0; i < columns.size(); i++) {
+        if ("name".equalsIgnoreCase(columns.get(i).trim())) {
+          return i;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // Reported as a header without a name column
+    }
+    return -1;
+  }
+
+  private static CreateContactDto parseCsv(String line, int nameColumn) {
+    final List<String> fields = ContactCsv.parseLine(line);
+    if (fields.size() <= nameColumn) {
+      throw new IllegalArgumentException("missing name column");
+    }
+    return new CreateContactDto(fields.get(nameColumn));
+  }
+
+  /**
+   * @returns The first constraint violation of the item as a message, or null if it is valid
+   */
+  private String validate(CreateContactDto contactDto) {
+    if (contactDto == null) {
+      return "item must not be null";
+    }
+    final Set<ConstraintViolation<CreateContactDto>> violations = validator.validate(contactDto);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    final ConstraintViolation<CreateContactDto> violation = violations.iterator().next();
+    return violation.getPropertyPath() + " " + violation.getMessage();
+  }
+
+  /**
+   * The running totals of an import and the contacts waiting to be copied
+   */
+  private static class Import {
+    private final List<Contact> chunk = new ArrayList<>(COPY_CHUNK_SIZE);
+
+    private final List<ContactImportErrorDto> errors = new ArrayList<>();
+
+    private long imported;
+
+    private long rejected;
+
+    private long chunkFirstLine;
+
+    private long chunkLastLine;
+
+    private void reject(long line, String message) {
+      rejected++;
+      if (errors.size() < MAX_REPORTED_ERRORS) {
+        errors.add(new ContactImportErrorDto(line, message));
+      }
+    }
+
+    /**
+     * Reject every contact of the chunk. Always reported, as it is where a retry resumes.
+     */
+    private void rejectChunk(String message) {
+      rejected += chunk.size();
+      errors.add(new ContactImportErrorDto(chunkFirstLine, chunkLastLine, message));
+      chunk.clear();
+    }
+
+    private ContactImportResultDto toDto() {
+      return new ContactImportResultDto(imported, rejected, errors);
+    }
+  }
+}
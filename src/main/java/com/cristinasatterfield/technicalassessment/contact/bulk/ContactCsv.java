@@ -0,0 +1,73 @@
+package com.cristinasatterfield.technicalassessment.contact.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 fields, one record per line. Quoted fields may contain commas and doubled
+ * quotes but not line breaks, so every record can be parsed and rejected on its own.
+ */
+final class ContactCsv {
+  private ContactCsv() {
+
+  }
+
+  /**
+   * Split a line into its fields
+   *
+   * @throws IllegalArgumentException If a quoted field is not closed, or is followed by anything but a comma
+   */
+  static List<String> parseLine(String line) {
+    final List<String> fields = new ArrayList<>();
+    final StringBuilder field = new StringBuilder();
+    int i = 0;
+    while (true) {
+      field.setLength(0);
+      if (i < line.length() && line.charAt(i) == '"') {
+        i++;
+        while (true) {
+          if (i >= line.length()) {
+            throw new IllegalArgumentException("unterminated quoted field");
+          }
+          final char c = line.charAt(i++);
+          if (c != '"') {
+            field.append(c);
+          } else if (i < line.length() && line.charAt(i) == '"') {
+            field.append('"');
+            i++;
+          } else {
+            break;
+          }
+        }
+        if (i < line.length() && line.charAt(i) != ',') {
+          throw new IllegalArgumentException("unexpected character after quoted field at column " + (i + 1));
+        }
+      } else {
+        final int end = line.indexOf(',', i);
+        field.append(line, i, end < 0 ? line.length() : end);
+        i = end < 0 ? line.length() : end;
+      }
+      fields.add(field.toString());
+
+      if (i >= line.length()) {
+        return fields;
+      }
+      i++;
+    }
+  }
+
+  /**
+   * Append a field, quoted so Postgres COPY reads it back unchanged
+   */
+  static StringBuilder appendField(StringBuilder out, String field) {
+    out.append('"');
+    for (int i = 0; i < field.length(); i++) {
+      final char c = field.charAt(i);
+      if (c == '"') {
+        out.append('"');
+      }
+      out.append(c);
+    }
+    return out.append('"');
+  }
+}
@@ -0,0 +1,165 @@
+package com.cristinasatterfield.technicalassessment.contact.changes;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+import com.cristinasatterfield.technicalassessment.contact.ContactController;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactChangeBatchDto;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/v1/contact/changes")
+@Tag(name = "Contact Changes API", description = "Incremental sync of contacts from a log of every write.")
+public class ContactChangeController {
+  /**
+   * since value for a token at the current end of the log
+   */
+  public static final String NOW = "now";
+
+  public static final int MAX_WAIT_SECONDS = 30;
+
+  @Autowired
+  private ContactChangeFeed contactChangeFeed;
+
+  /**
+   * Shorter than spring.mvc.async.request-timeout, which is sized for exports, so an
+   * idle stream does not hold its request for half an hour
+   */
+  @Value("${contact.changes.stream-timeout:5m}")
+  private Duration streamTimeout;
+
+  /**
+   * GET method to fetch the contact changes after a token, optionally waiting for some
+   *
+   * @param since The next token of the previous batch, "now", or nothing to start from the oldest retained change
+   * @param limit The maximum number of changes to return (optional)
+   * @param wait The number of seconds to wait for a change if there are none yet (optional)
+   * @returns A batch of changes and the token to continue from, 400 if the token is invalid, or 410 GONE if changes after it have been pruned
+   */
+  @GetMapping
+  @Operation(
+    summary = "Fetch contact changes",
+    description = "Fetch the creates, updates and deletes after the since token in commit order. Pass the returned next token as since to continue. With wait, an empty result is held open until a change arrives or the wait ends (at most " + MAX_WAIT_SECONDS + " seconds)."
+  )
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Successfully returned the changes"),
+    @ApiResponse(responseCode = "400", description = "Invalid since token"),
+    @ApiResponse(responseCode = "410", description = "Changes after the since token have been pruned; resync from an export") })
+  public DeferredResult<ResponseEntity<ContactChangeBatchDto>> getChanges(
+    @RequestParam(required = false) String since,
+    @RequestParam(defaultValue = "" + ContactController.DEFAULT_PAGE_SIZE) int limit,
+    @RequestParam(defaultValue = "0") int wait
+  ) {
+    final int waitSeconds = Math.max(0, Math.min(wait, MAX_WAIT_SECONDS));
+    final ContactChangeToken token = resolve(since);
+    if (token == null) {
+      final DeferredResult<ResponseEntity<ContactChangeBatchDto>> result = new DeferredResult<>();
+      result.setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+      return result;
+    }
+
+    final DeferredResult<ResponseEntity<ContactChangeBatchDto>> result = new DeferredResult<>(waitSeconds * 1000L,
+      () -> new ResponseEntity<>(ContactChangeBatchDto.empty(token.toString()), HttpStatus.OK));
+    final Optional<ContactChangeBatchDto> batch = this.contactChangeFeed.fetch(token, pageSize(limit));
+    if (!batch.isPresent()) {
+      result.setResult(new ResponseEntity<>(HttpStatus.GONE));
+      return result;
+    }
+    if (!batch.get().getChanges().isEmpty() || waitSeconds == 0) {
+      result.setResult(new ResponseEntity<>(batch.get(), HttpStatus.OK));
+      return result;
+    }
+
+    final ContactChangeFeed.Subscription subscription = this.contactChangeFeed.subscribe(token, pageSize(limit),
+      changes -> {
+        result.setResult(new ResponseEntity<>(changes, HttpStatus.OK));
+        return false;
+      },
+      () -> result.setResult(new ResponseEntity<>(HttpStatus.GONE)));
+    result.onCompletion(subscription::cancel);
+    return result;
+  }
+
+  /**
+   * GET method to stream contact changes as server-sent events. Each event is a batch
+   * whose id is its next token, so a reconnecting EventSource resumes where it left off.
+   *
+   * @param since The token to stream changes after (optional)
+   * @param lastEventId Sent by EventSource when it reconnects; used when since is absent
+   * @param limit The maximum number of changes per event (optional)
+   * @returns A stream of change batches, 400 if the token is invalid, or 410 GONE if changes after it have been pruned
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+    summary = "Stream contact changes",
+    description = "Send the changes after the since token, then each new batch of changes as it is committed, as server-sent events. The stream ends after a timeout; reconnect with Last-Event-ID to resume."
+  )
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Streaming the changes"),
+    @ApiResponse(responseCode = "400", description = "Invalid since token"),
+    @ApiResponse(responseCode = "410", description = "Changes after the since token have been pruned; resync from an export") })
+  public ResponseEntity<SseEmitter> streamChanges(
+    @RequestParam(required = false) String since,
+    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+    @RequestParam(defaultValue = "" + ContactController.DEFAULT_PAGE_SIZE) int limit
+  ) {
+    final ContactChangeToken token = resolve(since != null ? since : lastEventId);
+    if (token == null) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    if (this.contactChangeFeed.isPruned(token)) {
+      return new ResponseEntity<>(HttpStatus.GONE);
+    }
+
+    final SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+    // The feed sends the backlog page by page from a delivery thread once this returns.
+    // Sent from here, the emitter would hold all of it in memory until then.
+    final ContactChangeFeed.Subscription subscription = this.contactChangeFeed.subscribe(token, pageSize(limit),
+      changes -> {
+        try {
+          send(emitter, changes);
+          return true;
+        } catch (IOException e) {
+          emitter.completeWithError(e);
+          return false;
+        }
+      },
+      // Reconnecting with the last event id gets 410
+      emitter::complete);
+    emitter.onCompletion(subscription::cancel);
+    emitter.onTimeout(subscription::cancel);
+    emitter.onError(error -> subscription.cancel());
+    return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+  }
+
+  private ContactChangeToken resolve(String since) {
+    return NOW.equals(since) ? this.contactChangeFeed.now() : ContactChangeToken.parse(since);
+  }
+
+  private static int pageSize(int limit) {
+    return Math.max(1, Math.min(limit, ContactController.MAX_PAGE_SIZE));
+  }
+
+  private static void send(SseEmitter emitter, ContactChangeBatchDto batch) throws IOException {
+    emitter.send(SseEmitter.event().id(batch.getNext()).name("changes").data(batch, MediaType.APPLICATION_JSON));
+  }
+}
@@ -0,0 +1,300 @@
+package com.cristinasatterfield.technicalassessment.contact.changes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactChangeBatchDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactChangeDto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Reads the contact_change log written by the contact_log_change trigger, and wakes
+ * subscribers when changes past their token become readable.
+ *
+ * One thread polls for the newest readable change while anyone is subscribed, so the
+ * database sees one cheap query per poll interval however many consumers wait, plus
+ * one fetch per distinct token that has fallen behind.
+ *
+ * Batches are handed to subscribers on delivery threads, one batch at a time per
+ * subscriber. Polls skip a subscriber still handling its last batch, so a slow
+ * consumer, such as a stream to a client that reads slowly, only holds up itself. A
+ * subscriber that is behind is caught up page by page on its delivery thread.
+ *
+ * Changes older than contact.changes.retention are pruned, and the newest pruned
+ * change is recorded in contact_change_pruned. A reader behind it is told its changes
+ * are gone rather than silently skipping them.
+ */
+@Service
+public class ContactChangeFeed implements DisposableBean {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContactChangeFeed.class);
+
+  /**
+   * Only transactions older than every transaction still in flight are readable
+   */
+  private static final String READABLE = "xid < txid_snapshot_xmin(txid_current_snapshot())";
+
+  private static final RowMapper<ContactChangeToken> TOKEN_ROW_MAPPER = (resultSet, rowNum) ->
+    new ContactChangeToken(resultSet.getLong("xid"), resultSet.getLong("change_id"));
+
+  private static final RowMapper<ContactChangeDto> CHANGE_ROW_MAPPER = (resultSet, rowNum) -> new ContactChangeDto(
+    resultSet.getString("operation"),
+    resultSet.getLong("contact_id"),
+    resultSet.getString("name"),
+    resultSet.getObject("version", Long.class)
+  );
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final Duration retention;
+
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+  private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    final Thread thread = new Thread(runnable, "contact-change-poll");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final ExecutorService deliveries = Executors.newCachedThreadPool(runnable -> {
+    final Thread thread = new Thread(runnable, "contact-change-deliver");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public ContactChangeFeed(
+    JdbcTemplate jdbcTemplate,
+    @Value("${contact.changes.poll-interval:250ms}") Duration pollInterval,
+    @Value("${contact.changes.retention:7d}") Duration retention,
+    MeterRegistry registry
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.retention = retention;
+
+    Gauge.builder("contact.changes.subscribers", subscriptions, Set::size)
+      .description("Long-poll and stream consumers waiting for contact changes")
+      .register(registry);
+
+    poller.scheduleWithFixedDelay(this::notifySubscribers, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    poller.scheduleWithFixedDelay(this::prune, 1, 60, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Fetch the changes after a token
+   *
+   * @param since The token returned with the previous batch
+   * @param limit The maximum number of changes to return
+   * @returns Up to limit changes and the token to continue from, or empty if changes after the token have been pruned
+   */
+  public Optional<ContactChangeBatchDto> fetch(ContactChangeToken since, int limit) {
+    final List<ContactChangeDto> changes = new ArrayList<>();
+    final ContactChangeToken[] next = { since };
+    jdbcTemplate.query(
+      "SELECT xid, change_id, operation, contact_id, name, version FROM contact_change"
+        + " WHERE (xid, change_id) > (?, ?) AND " + READABLE
+        + " ORDER BY xid, change_id LIMIT ?",
+      resultSet -> {
+        changes.add(CHANGE_ROW_MAPPER.mapRow(resultSet, changes.size()));
+        next[0] = new ContactChangeToken(resultSet.getLong("xid"), resultSet.getLong("change_id"));
+      },
+      since.getXid(), since.getChangeId(), limit);
+
+    // Checked after reading, so a prune that removed changes before the read is always seen
+    if (isPruned(since)) {
+      return Optional.empty();
+    }
+    return Optional.of(new ContactChangeBatchDto(changes, next[0].toString()));
+  }
+
+  /**
+   * @returns Whether changes after the token have been pruned. START is never pruned, as it asks for the oldest retained change.
+   */
+  public boolean isPruned(ContactChangeToken since) {
+    if (since.equals(ContactChangeToken.START)) {
+      return false;
+    }
+    final ContactChangeToken prunedThrough = jdbcTemplate.queryForObject(
+      "SELECT xid, change_id FROM contact_change_pruned", TOKEN_ROW_MAPPER);
+    return since.compareTo(prunedThrough) < 0;
+  }
+
+  /**
+   * A token for changes from now on. Export the contacts after taking it, then apply
+   * the changes since it, to get a copy that is never missing a write.
+   */
+  public ContactChangeToken now() {
+    return new ContactChangeToken(jdbcTemplate.queryForObject("SELECT txid_snapshot_xmin(txid_current_snapshot())", Long.class), 0);
+  }
+
+  /**
+   * Call onChanges with each batch that becomes readable after the token, on a delivery
+   * thread and never for two batches at once. Changes already readable are delivered
+   * from the next poll on.
+   *
+   * @param since The token to deliver changes after
+   * @param limit The maximum number of changes per batch
+   * @param onChanges Receives each batch; returns false to stop listening
+   * @param onPruned Called instead, and the subscription cancelled, if changes after its token are pruned
+   * @returns The subscription, to cancel when the consumer goes away
+   */
+  public Subscription subscribe(ContactChangeToken since, int limit, Predicate<ContactChangeBatchDto> onChanges,
+    Runnable onPruned) {
+    final Subscription subscription = new Subscription(since, limit, onChanges, onPruned);
+    subscriptions.add(subscription);
+    return subscription;
+  }
+
+  void notifySubscribers() {
+    if (subscriptions.isEmpty()) {
+      return;
+    }
+
+    try {
+      final ContactChangeToken newest = jdbcTemplate.query(
+        "SELECT xid, change_id FROM contact_change WHERE " + READABLE + " ORDER BY xid DESC, change_id DESC LIMIT 1",
+        TOKEN_ROW_MAPPER)
+        .stream()
+        .findFirst()
+        .orElse(ContactChangeToken.START);
+
+      // Consumers that are in step share one fetch
+      final Map<String, Optional<ContactChangeBatchDto>> fetched = new HashMap<>();
+      for (Subscription subscription : subscriptions) {
+        if (subscription.delivering || subscription.token.compareTo(newest) >= 0) {
+          continue;
+        }
+        final Optional<ContactChangeBatchDto> batch = fetched.computeIfAbsent(
+          subscription.token + "/" + subscription.limit, key -> fetch(subscription.token, subscription.limit));
+        subscription.delivering = true;
+        if (batch.isPresent()) {
+          subscription.token = ContactChangeToken.parse(batch.get().getNext());
+          deliveries.execute(() -> subscription.deliver(batch.get()));
+        } else {
+          deliveries.execute(subscription::pruned);
+        }
+      }
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to poll the contact change log, will retry", e);
+    }
+  }
+
+  void prune() {
+    try {
+      // One statement, so the pruned position moves in the same transaction as the delete
+      jdbcTemplate.update(
+        "WITH pruned AS ("
+          + "DELETE FROM contact_change WHERE changed_at < now() - ? * interval '1 second' RETURNING xid, change_id)"
+          + " UPDATE contact_change_pruned p SET xid = newest.xid, change_id = newest.change_id"
+          + " FROM (SELECT xid, change_id FROM pruned ORDER BY xid DESC, change_id DESC LIMIT 1) newest"
+          + " WHERE (newest.xid, newest.change_id) > (p.xid, p.change_id)",
+        retention.getSeconds());
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to prune the contact change log", e);
+    }
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    poller.shutdownNow();
+    deliveries.shutdownNow();
+  }
+
+  public final class Subscription {
+    private volatile ContactChangeToken token;
+
+    private final int limit;
+
+    private final Predicate<ContactChangeBatchDto> onChanges;
+
+    private final Runnable onPruned;
+
+    /**
+     * Set by the poll thread when it hands over a batch, cleared once onChanges returns
+     */
+    private volatile boolean delivering;
+
+    private Subscription(ContactChangeToken token, int limit, Predicate<ContactChangeBatchDto> onChanges,
+      Runnable onPruned) {
+      this.token = token;
+      this.limit = limit;
+      this.onChanges = onChanges;
+      this.onPruned = onPruned;
+    }
+
+    public void cancel() {
+      subscriptions.remove(this);
+    }
+
+    /**
+     * Hand a batch to onChanges, then go on fetching and handing over pages for as long
+     * as they come back full, so a subscriber far behind catches up at the pace it
+     * consumes rather than a page per poll
+     */
+    private void deliver(ContactChangeBatchDto first) {
+      try {
+        ContactChangeBatchDto batch = first;
+        while (true) {
+          if (!onChanges.test(batch)) {
+            cancel();
+            return;
+          }
+          if (batch.getChanges().size() < limit || !subscriptions.contains(this)) {
+            return;
+          }
+
+          final Optional<ContactChangeBatchDto> next;
+          try {
+            next = fetch(token, limit);
+          } catch (RuntimeException e) {
+            // Picked up again by the next poll
+            LOGGER.warn("Failed to fetch contact changes for a subscriber, will retry", e);
+            return;
+          }
+          if (!next.isPresent()) {
+            pruned();
+            return;
+          }
+          if (next.get().getChanges().isEmpty()) {
+            return;
+          }
+          token = ContactChangeToken.parse(next.get().getNext());
+          batch = next.get();
+        }
+      } catch (RuntimeException e) {
+        LOGGER.warn("Contact change subscriber failed, cancelling it", e);
+        cancel();
+      } finally {
+        delivering = false;
+      }
+    }
+
+    private void pruned() {
+      cancel();
+      try {
+        onPruned.run();
+      } catch (RuntimeException e) {
+        LOGGER.warn("Contact change subscriber failed", e);
+      }
+    }
+  }
+}
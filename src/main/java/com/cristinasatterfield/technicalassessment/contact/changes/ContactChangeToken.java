@@ -0,0 +1,68 @@
+package com.cristinasatterfield.technicalassessment.contact.changes;
+
+/**
+ * A position in the contact change log, written as "xid.changeId". Changes are read in
+ * (xid, changeId) order and only from transactions older than every transaction still
+ * in flight, so a change that commits late can never land behind a token already
+ * handed out.
+ */
+public final class ContactChangeToken implements Comparable<ContactChangeToken> {
+  public static final ContactChangeToken START = new ContactChangeToken(0, 0);
+
+  private final long xid;
+
+  private final long changeId;
+
+  ContactChangeToken(long xid, long changeId) {
+    this.xid = xid;
+    this.changeId = changeId;
+  }
+
+  /**
+   * @returns The token, START if there is none, or null if it is not a token this API issued
+   */
+  public static ContactChangeToken parse(String token) {
+    if (token == null || token.isEmpty()) {
+      return START;
+    }
+
+    final int dot = token.indexOf('.');
+    if (dot < 0) {
+      return null;
+    }
+    try {
+      return new ContactChangeToken(Long.parseLong(token.substring(0, dot)), Long.parseLong(token.substring(dot + 1)));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  long getXid() {
+    return xid;
+  }
+
+  long getChangeId() {
+    return changeId;
+  }
+
+  @Override
+  public int compareTo(ContactChangeToken other) {
+    final int byXid = Long.compare(xid, other.xid);
+    return byXid != 0 ? byXid : Long.compare(changeId, other.changeId);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof ContactChangeToken && compareTo((ContactChangeToken) other) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(xid) * 31 + Long.hashCode(changeId);
+  }
+
+  @Override
+  public String toString() {
+    return xid + "." + changeId;
+  }
+}
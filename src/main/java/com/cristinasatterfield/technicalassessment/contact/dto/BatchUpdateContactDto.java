@@ -0,0 +1,39 @@
+package com.cristinasatterfield.technicalassessment.contact.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+public class BatchUpdateContactDto {
+  @NotNull
+  private Long id;
+
+  @NotBlank
+  @Pattern(regexp = CreateContactDto.STORABLE_NAME, message = CreateContactDto.STORABLE_NAME_MESSAGE)
+  private String name;
+
+  public BatchUpdateContactDto() {
+
+  }
+
+  public BatchUpdateContactDto(Long id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+}
@@ -0,0 +1,80 @@
+package com.cristinasatterfield.technicalassessment.contact.dto;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The outcome of one item of a batch request. The status mirrors what the single
+ * item endpoint would have returned.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ContactBatchResultDto {
+  private int status;
+
+  private Long id;
+
+  private Contact contact;
+
+  private String error;
+
+  public ContactBatchResultDto() {
+
+  }
+
+  public static ContactBatchResultDto success(HttpStatus status, Contact contact) {
+    final ContactBatchResultDto result = new ContactBatchResultDto();
+    result.status = status.value();
+    result.id = contact.getId();
+    result.contact = contact;
+    return result;
+  }
+
+  public static ContactBatchResultDto deleted(Long id) {
+    final ContactBatchResultDto result = new ContactBatchResultDto();
+    result.status = HttpStatus.NO_CONTENT.value();
+    result.id = id;
+    return result;
+  }
+
+  public static ContactBatchResultDto failure(HttpStatus status, Long id, String error) {
+    final ContactBatchResultDto result = new ContactBatchResultDto();
+    result.status = status.value();
+    result.id = id;
+    result.error = error;
+    return result;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public void setStatus(int status) {
+    this.status = status;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Contact getContact() {
+    return contact;
+  }
+
+  public void setContact(Contact contact) {
+    this.contact = contact;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+}
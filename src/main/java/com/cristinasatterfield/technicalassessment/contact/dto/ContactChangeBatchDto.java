@@ -0,0 +1,43 @@
+package com.cristinasatterfield.technicalassessment.contact.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A batch of contact changes in commit order, and the token to pass as since to get
+ * the changes that follow them
+ */
+public class ContactChangeBatchDto {
+  private List<ContactChangeDto> changes;
+
+  private String next;
+
+  public ContactChangeBatchDto() {
+
+  }
+
+  public ContactChangeBatchDto(List<ContactChangeDto> changes, String next) {
+    this.changes = changes;
+    this.next = next;
+  }
+
+  public static ContactChangeBatchDto empty(String next) {
+    return new ContactChangeBatchDto(Collections.emptyList(), next);
+  }
+
+  public List<ContactChangeDto> getChanges() {
+    return changes;
+  }
+
+  public void setChanges(List<ContactChangeDto> changes) {
+    this.changes = changes;
+  }
+
+  public String getNext() {
+    return next;
+  }
+
+  public void setNext(String next) {
+    this.next = next;
+  }
+}
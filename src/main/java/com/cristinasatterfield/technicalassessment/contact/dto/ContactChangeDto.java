@@ -0,0 +1,60 @@
+package com.cristinasatterfield.technicalassessment.contact.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One write to a contact. Deletes only carry the id.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ContactChangeDto {
+  private String operation;
+
+  private Long id;
+
+  private String name;
+
+  private Long version;
+
+  public ContactChangeDto() {
+
+  }
+
+  public ContactChangeDto(String operation, Long id, String name, Long version) {
+    this.operation = operation;
+    this.id = id;
+    this.name = name;
+    this.version = version;
+  }
+
+  public String getOperation() {
+    return operation;
+  }
+
+  public void setOperation(String operation) {
+    this.operation = operation;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+}
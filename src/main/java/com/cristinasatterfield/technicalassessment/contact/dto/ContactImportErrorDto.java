@@ -0,0 +1,57 @@
+package com.cristinasatterfield.technicalassessment.contact.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A line of an import that was rejected, or a range of lines that failed to load
+ * together, and why
+ */
+public class ContactImportErrorDto {
+  private Long line;
+
+  /**
+   * The last line of the range, or null for a single line
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long lastLine;
+
+  private String message;
+
+  public ContactImportErrorDto() {
+
+  }
+
+  public ContactImportErrorDto(Long line, String message) {
+    this(line, null, message);
+  }
+
+  public ContactImportErrorDto(Long line, Long lastLine, String message) {
+    this.line = line;
+    this.lastLine = lastLine;
+    this.message = message;
+  }
+
+  public Long getLine() {
+    return line;
+  }
+
+  public void setLine(Long line) {
+    this.line = line;
+  }
+
+  public Long getLastLine() {
+    return lastLine;
+  }
+
+  public void setLastLine(Long lastLine) {
+    this.lastLine = lastLine;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+  }
+}
@@ -0,0 +1,50 @@
+package com.cristinasatterfield.technicalassessment.contact.dto;
+
+import java.util.List;
+
+/**
+ * The outcome of an import: how many contacts were created and how many lines were
+ * rejected. errors describes the first rejected lines; it is capped, so it can be
+ * shorter than rejected.
+ */
+public class ContactImportResultDto {
+  private Long imported;
+
+  private Long rejected;
+
+  private List<ContactImportErrorDto> errors;
+
+  public ContactImportResultDto() {
+
+  }
+
+  public ContactImportResultDto(Long imported, Long rejected, List<ContactImportErrorDto> errors) {
+    this.imported = imported;
+    this.rejected = rejected;
+    this.errors = errors;
+  }
+
+  public Long getImported() {
+    return imported;
+  }
+
+  public void setImported(Long imported) {
+    this.imported = imported;
+  }
+
+  public Long getRejected() {
+    return rejected;
+  }
+
+  public void setRejected(Long rejected) {
+    this.rejected = rejected;
+  }
+
+  public List<ContactImportErrorDto> getErrors() {
+    return errors;
+  }
+
+  public void setErrors(List<ContactImportErrorDto> errors) {
+    this.errors = errors;
+  }
+}
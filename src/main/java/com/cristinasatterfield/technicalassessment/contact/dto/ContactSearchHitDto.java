@@ -0,0 +1,47 @@
+package com.cristinasatterfield.technicalassessment.contact.dto;
+
+/**
+ * A contact matching a search, with its relevance. Scores only compare hits of the
+ * same search.
+ */
+public class ContactSearchHitDto {
+  private Long id;
+
+  private String name;
+
+  private Double score;
+
+  public ContactSearchHitDto() {
+
+  }
+
+  public ContactSearchHitDto(Long id, String name, Double score) {
+    this.id = id;
+    this.name = name;
+    this.score = score;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Double getScore() {
+    return score;
+  }
+
+  public void setScore(Double score) {
+    this.score = score;
+  }
+}
@@ -0,0 +1,38 @@
+package com.cristinasatterfield.technicalassessment.contact.dto;
+
+import java.util.List;
+
+/**
+ * A page of search hits, best first, and the offset to pass for the next page. next
+ * is null on the last page.
+ */
+public class ContactSearchPageDto {
+  private List<ContactSearchHitDto> hits;
+
+  private Integer next;
+
+  public ContactSearchPageDto() {
+
+  }
+
+  public ContactSearchPageDto(List<ContactSearchHitDto> hits, Integer next) {
+    this.hits = hits;
+    this.next = next;
+  }
+
+  public List<ContactSearchHitDto> getHits() {
+    return hits;
+  }
+
+  public void setHits(List<ContactSearchHitDto> hits) {
+    this.hits = hits;
+  }
+
+  public Integer getNext() {
+    return next;
+  }
+
+  public void setNext(Integer next) {
+    this.next = next;
+  }
+}
@@ -0,0 +1,35 @@
+package com.cristinasatterfield.technicalassessment.contact.dto;
+
+/**
+ * A contact offered as a completion of a typed prefix
+ */
+public class ContactSuggestionDto {
+  private Long id;
+
+  private String name;
+
+  public ContactSuggestionDto() {
+
+  }
+
+  public ContactSuggestionDto(Long id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+}
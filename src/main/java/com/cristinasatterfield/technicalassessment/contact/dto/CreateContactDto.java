@@ -1,9 +1,18 @@
 package com.cristinasatterfield.technicalassessment.contact.dto;
 
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
 
 public class CreateContactDto {
+  /**
+   * Postgres cannot store NUL in text, so a name holding one would fail its insert
+   */
+  public static final String STORABLE_NAME = "[^\\x00]*";
+
+  public static final String STORABLE_NAME_MESSAGE = "must not contain NUL characters";
+
   @NotBlank
+  @Pattern(regexp = STORABLE_NAME, message = STORABLE_NAME_MESSAGE)
   private String name;
 
   public CreateContactDto() {
@@ -1,9 +1,11 @@
 package com.cristinasatterfield.technicalassessment.contact.dto;
 
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
 
 public class UpdateContactDto {
   @NotBlank
+  @Pattern(regexp = CreateContactDto.STORABLE_NAME, message = CreateContactDto.STORABLE_NAME_MESSAGE)
   private String name;
 
   public UpdateContactDto() {
@@ -0,0 +1,33 @@
+package com.cristinasatterfield.technicalassessment.contact.ingest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out contact ids in blocks of BLOCK_SIZE from contact_id_seq, the same way
+ * Hibernate's pooled optimizer does for Contact, so both can share the sequence
+ * without handing out the same id.
+ */
+@Component
+public class ContactIdAllocator {
+  /**
+   * Must match the sequence's INCREMENT BY and the allocationSize on Contact
+   */
+  static final int BLOCK_SIZE = 50;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private long next = 1;
+
+  private long last = 0;
+
+  public synchronized long nextId() {
+    if (next > last) {
+      last = jdbcTemplate.queryForObject("SELECT nextval('contact_id_seq')", Long.class);
+      next = last - BLOCK_SIZE + 1;
+    }
+    return next++;
+  }
+}
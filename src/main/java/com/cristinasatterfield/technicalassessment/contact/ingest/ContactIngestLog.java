@@ -0,0 +1,168 @@
+package com.cristinasatterfield.technicalassessment.contact.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+
+/**
+ * A bounded, memory-mapped ring buffer of contacts waiting to be inserted.
+ *
+ * The file starts with a header holding the head and tail, as byte counters that only
+ * grow; a counter modulo the capacity is an offset into the data region. Each record
+ * is a length, the id and the UTF-8 name. A record that does not fit before the end
+ * of the region starts again at offset zero, and the skipped bytes are marked with
+ * WRAP_MARKER when there is room for it.
+ *
+ * The tail is only moved after a record is written and the head only after its batch
+ * is inserted, so everything between them survives a restart of the process.
+ */
+class ContactIngestLog implements Closeable {
+  private static final int HEADER_BYTES = 16;
+
+  private static final int HEAD_OFFSET = 0;
+
+  private static final int TAIL_OFFSET = 8;
+
+  private static final int WRAP_MARKER = -1;
+
+  private final FileChannel channel;
+
+  private final MappedByteBuffer buffer;
+
+  private final int capacity;
+
+  private long head;
+
+  private long tail;
+
+  private int size;
+
+  ContactIngestLog(Path file, int capacity) throws IOException {
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + capacity);
+    this.capacity = capacity;
+    this.head = buffer.getLong(HEAD_OFFSET);
+    this.tail = buffer.getLong(TAIL_OFFSET);
+
+    if (head < 0 || tail < head || tail - head > capacity) {
+      throw new IOException("Ingest log " + file + " is corrupt or was written with a different capacity");
+    }
+    this.size = peek(Integer.MAX_VALUE).getContacts().size();
+  }
+
+  /**
+   * Append a contact to the tail of the log
+   *
+   * @returns false if the log does not have room for it
+   */
+  synchronized boolean append(long id, String name) {
+    final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    final int recordBytes = 4 + 8 + nameBytes.length;
+
+    long position = tail;
+    final int untilEnd = capacity - offset(position);
+    final int padding = recordBytes > untilEnd ? untilEnd : 0;
+    if (tail - head + padding + recordBytes > capacity) {
+      return false;
+    }
+
+    if (padding > 0) {
+      if (untilEnd >= 4) {
+        buffer.putInt(HEADER_BYTES + offset(position), WRAP_MARKER);
+      }
+      position += padding;
+    }
+
+    final int at = HEADER_BYTES + offset(position);
+    buffer.putInt(at, 8 + nameBytes.length);
+    buffer.putLong(at + 4, id);
+    buffer.put(at + 12, nameBytes);
+
+    tail = position + recordBytes;
+    buffer.putLong(TAIL_OFFSET, tail);
+    size++;
+    return true;
+  }
+
+  /**
+   * Read up to max contacts from the head without removing them
+   */
+  synchronized Batch peek(int max) {
+    final List<Contact> contacts = new ArrayList<>();
+    long position = head;
+
+    while (contacts.size() < max && position < tail) {
+      final int untilEnd = capacity - offset(position);
+      if (untilEnd < 4 || buffer.getInt(HEADER_BYTES + offset(position)) == WRAP_MARKER) {
+        position += untilEnd;
+        continue;
+      }
+
+      final int at = HEADER_BYTES + offset(position);
+      final int length = buffer.getInt(at);
+      final byte[] nameBytes = new byte[length - 8];
+      buffer.get(at + 12, nameBytes);
+
+      final Contact contact = new Contact();
+      contact.setId(buffer.getLong(at + 4));
+      contact.setName(new String(nameBytes, StandardCharsets.UTF_8));
+      contact.setVersion(0L);
+      contacts.add(contact);
+
+      position += 4 + length;
+    }
+    return new Batch(contacts, position);
+  }
+
+  /**
+   * Remove a batch returned by peek once it has been inserted
+   */
+  synchronized void remove(Batch batch) {
+    head = batch.end;
+    buffer.putLong(HEAD_OFFSET, head);
+    size -= batch.contacts.size();
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  synchronized long usedBytes() {
+    return tail - head;
+  }
+
+  @Override
+  public void close() throws IOException {
+    buffer.force();
+    channel.close();
+  }
+
+  private int offset(long position) {
+    return (int) (position % capacity);
+  }
+
+  static final class Batch {
+    private final List<Contact> contacts;
+
+    private final long end;
+
+    private Batch(List<Contact> contacts, long end) {
+      this.contacts = contacts;
+      this.end = end;
+    }
+
+    List<Contact> getContacts() {
+      return contacts;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.cristinasatterfield.technicalassessment.contact.ingest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactService;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Write-behind ingest for contact creation. Accepted contacts get an id straight
+ * away and are appended to a local ContactIngestLog; a single background thread
+ * drains the log into Postgres with multi-row inserts. Contacts still in the log
+ * when the process stops are inserted after the next start.
+ *
+ * A batch that Postgres rejects is retried one contact at a time, and the contacts it
+ * still rejects are dropped and counted, so one bad row cannot hold up the rest.
+ *
+ * Enabled by contact.ingest.async.enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "contact.ingest.async.enabled", havingValue = "true")
+public class ContactIngestQueue implements DisposableBean {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContactIngestQueue.class);
+
+  private final ContactIngestLog log;
+
+  private final ContactIdAllocator idAllocator;
+
+  private final ContactService contactService;
+
+  private final int batchSize;
+
+  private final Timer flushTimer;
+
+  private final Counter rejected;
+
+  private final Counter dropped;
+
+  private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    final Thread thread = new Thread(runnable, "contact-ingest-drain");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public ContactIngestQueue(
+    @Value("${contact.ingest.log-file:data/contact-ingest.log}") Path logFile,
+    @Value("${contact.ingest.capacity-bytes:67108864}") int capacityBytes,
+    @Value("${contact.ingest.batch-size:500}") int batchSize,
+    @Value("${contact.ingest.flush-interval:50ms}") Duration flushInterval,
+    ContactIdAllocator idAllocator,
+    ContactService contactService,
+    MeterRegistry registry
+  ) throws IOException {
+    this.log = new ContactIngestLog(logFile, capacityBytes);
+    this.idAllocator = idAllocator;
+    this.contactService = contactService;
+    this.batchSize = batchSize;
+
+    Gauge.builder("contact.ingest.queue.depth", log, ContactIngestLog::size)
+      .description("Contacts accepted but not yet inserted")
+      .register(registry);
+    Gauge.builder("contact.ingest.queue.bytes", log, ContactIngestLog::usedBytes)
+      .description("Bytes of the ingest log in use")
+      .register(registry);
+    this.flushTimer = Timer.builder("contact.ingest.flush")
+      .description("Time to insert one batch from the ingest log")
+      .publishPercentileHistogram()
+      .register(registry);
+    this.rejected = Counter.builder("contact.ingest.rejected")
+      .description("Contacts rejected because the ingest log was full")
+      .register(registry);
+    this.dropped = Counter.builder("contact.ingest.dropped")
+      .description("Contacts dropped from the ingest log because Postgres rejected them")
+      .register(registry);
+
+    if (log.size() > 0) {
+      LOGGER.info("Replaying {} contacts left in the ingest log", log.size());
+    }
+    drainer.scheduleWithFixedDelay(this::drain, 0, flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Accept a contact for creation
+   *
+   * @param contactDto The details of the contact to create
+   * @returns The contact as it will be inserted, or empty if the queue is full
+   * @throws IllegalArgumentException If the name cannot be stored in Postgres
+   */
+  public Optional<Contact> enqueue(CreateContactDto contactDto) {
+    if (!contactDto.getName().matches(CreateContactDto.STORABLE_NAME)) {
+      throw new IllegalArgumentException("name " + CreateContactDto.STORABLE_NAME_MESSAGE);
+    }
+
+    final long id = idAllocator.nextId();
+    if (!log.append(id, contactDto.getName())) {
+      rejected.increment();
+      return Optional.empty();
+    }
+
+    final Contact contact = new Contact();
+    contact.setId(id);
+    contact.setName(contactDto.getName());
+    contact.setVersion(0L);
+    return Optional.of(contact);
+  }
+
+  void drain() {
+    try {
+      ContactIngestLog.Batch batch = log.peek(batchSize);
+      while (!batch.getContacts().isEmpty()) {
+        final ContactIngestLog.Batch current = batch;
+        try {
+          flushTimer.record(() -> contactService.insertContacts(current.getContacts()));
+          log.remove(batch);
+        } catch (RuntimeException e) {
+          // The failure is logged again below if it was not caused by the rows themselves
+          LOGGER.warn("Failed to insert a batch from the contact ingest log, inserting it one contact at a time: {}",
+            e.getMessage());
+          drainOneAtATime(batch.getContacts().size());
+        }
+        batch = log.peek(batchSize);
+      }
+    } catch (RuntimeException e) {
+      // Leave the batch in the log and try again on the next tick
+      LOGGER.warn("Failed to flush the contact ingest log, will retry", e);
+    }
+  }
+
+  /**
+   * Insert the next count contacts on their own, dropping those Postgres rejects. Any
+   * other failure stops the drain and leaves the contact at the head of the log.
+   */
+  private void drainOneAtATime(int count) {
+    for (int i = 0; i < count; i++) {
+      final ContactIngestLog.Batch single = log.peek(1);
+      try {
+        contactService.insertContacts(single.getContacts());
+      } catch (DataIntegrityViolationException e) {
+        dropped.increment();
+        LOGGER.error("Dropping contact {} from the ingest log, Postgres rejected it",
+          single.getContacts().get(0).getId(), e);
+      }
+      log.remove(single);
+    }
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    drainer.shutdown();
+    drainer.awaitTermination(10, TimeUnit.SECONDS);
+    log.close();
+  }
+}
@@ -0,0 +1,115 @@
+package com.cristinasatterfield.technicalassessment.contact.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSearchHitDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSearchPageDto;
+import com.cristinasatterfield.technicalassessment.datasource.StatementTimeouts;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Ranked name search over the column added by V1_8 and the indexes added by V1_10.
+ *
+ * Every word of the search has to start a word of the name, in any order and ignoring
+ * case and accents, which contact_name_tsv_idx answers. Fuzzy searches also accept
+ * names containing something close to the whole search, so a typo still finds the
+ * contact; contact_search_key_trgm_idx answers that half, and Postgres ORs the two
+ * index scans together. Hits are ordered by word rank plus trigram similarity.
+ */
+@Service
+public class ContactSearch {
+  private static final String QUERY = "to_tsquery('simple', contact_unaccent(:query))";
+
+  private static final String FUZZY_MATCH = "contact_search_key(:term) <% contact_search_key(name)";
+
+  private static final String FUZZY_SCORE = "word_similarity(contact_search_key(:term), contact_search_key(name))";
+
+  private static final RowMapper<ContactSearchHitDto> HIT_ROW_MAPPER = (resultSet, rowNum) -> new ContactSearchHitDto(
+    resultSet.getLong("id"),
+    resultSet.getString("name"),
+    resultSet.getDouble("score")
+  );
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  private final String fuzzyThreshold;
+
+  private final StatementTimeouts statementTimeouts;
+
+  public ContactSearch(
+    NamedParameterJdbcTemplate jdbcTemplate,
+    @Value("${contact.search.fuzzy-threshold:0.3}") double fuzzyThreshold,
+    StatementTimeouts statementTimeouts
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.fuzzyThreshold = Double.toString(fuzzyThreshold);
+    this.statementTimeouts = statementTimeouts;
+  }
+
+  /**
+   * Fetch one page of the contacts matching a search, best first
+   *
+   * @param text The search as typed
+   * @param fuzzy Whether to also match names with misspelled words
+   * @param offset The number of hits to skip
+   * @param limit The maximum number of hits to return
+   * @returns The page of hits, or empty if the search has no words to look for
+   */
+  @Timed(value = "contact.service", histogram = true)
+  @Transactional(readOnly = true)
+  public Optional<ContactSearchPageDto> search(String text, boolean fuzzy, int offset, int limit) {
+    final String query = toTsQuery(text);
+    if (query == null) {
+      return Optional.empty();
+    }
+
+    statementTimeouts.forSearch(jdbcTemplate.getJdbcTemplate());
+    if (fuzzy) {
+      // Scoped to this transaction. The default of 0.6 misses most single typos in short names.
+      jdbcTemplate.getJdbcTemplate().queryForObject(
+        "SELECT set_config('pg_trgm.word_similarity_threshold', ?, true)", String.class, fuzzyThreshold);
+    }
+
+    final MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("query", query)
+      .addValue("term", text)
+      .addValue("offset", offset)
+      .addValue("limit", limit);
+    final List<ContactSearchHitDto> hits = jdbcTemplate.query(sql(fuzzy), params, HIT_ROW_MAPPER);
+
+    return Optional.of(new ContactSearchPageDto(hits, hits.size() < limit ? null : offset + limit));
+  }
+
+  static String sql(boolean fuzzy) {
+    final String score = "ts_rank(name_tsv, " + QUERY + ")" + (fuzzy ? " + " + FUZZY_SCORE : "");
+    final String match = "name_tsv @@ " + QUERY + (fuzzy ? " OR " + FUZZY_MATCH : "");
+    return "SELECT id, name, " + score + " AS score FROM contact WHERE " + match
+      + " ORDER BY score DESC, id LIMIT :limit OFFSET :offset";
+  }
+
+  /**
+   * Turn the search into a tsquery requiring a name word starting with each of its
+   * words. Anything but letters and digits separates words, so tsquery operators in
+   * the search are never interpreted.
+   *
+   * @returns The tsquery text, or null if the search has no words
+   */
+  static String toTsQuery(String text) {
+    final String query = Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+      .filter(word -> !word.isEmpty())
+      .map(word -> word + ":*")
+      .collect(Collectors.joining(" & "));
+    return query.isEmpty() ? null : query;
+  }
+}
@@ -0,0 +1,244 @@
+package com.cristinasatterfield.technicalassessment.contact.suggest;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable, sorted prefix index over contact names, packed into a few primitive
+ * arrays so it costs tens of bytes per name rather than hundreds of bytes of objects.
+ *
+ * Every word of a normalized name starts an entry, so "Anna Smith" can be found by
+ * "ann" and by "smi". Entries are the suffix of the normalized name from that word
+ * on, sorted by their UTF-8 bytes and then by contact id, so the matches for a prefix
+ * are one contiguous run found by binary search, already in suggestion order.
+ */
+final class ContactNameSegment {
+  static final ContactNameSegment EMPTY = new Builder().build();
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+  private static final Pattern SPACES = Pattern.compile("\\s+");
+
+  /**
+   * Per contact: id, display name and normalized name; offsets have one extra
+   * element so contact i spans offsets[i] to offsets[i + 1]
+   */
+  private final long[] ids;
+
+  private final int[] nameOffsets;
+
+  private final byte[] names;
+
+  private final int[] keyOffsets;
+
+  private final byte[] keys;
+
+  /**
+   * Per entry, in sorted order: the contact and the offset of its first word
+   * within the normalized name
+   */
+  private final int[] entryContacts;
+
+  private final int[] entryStarts;
+
+  private ContactNameSegment(long[] ids, int[] nameOffsets, byte[] names, int[] keyOffsets, byte[] keys,
+    int[] entryContacts, int[] entryStarts) {
+    this.ids = ids;
+    this.nameOffsets = nameOffsets;
+    this.names = names;
+    this.keyOffsets = keyOffsets;
+    this.keys = keys;
+    this.entryContacts = entryContacts;
+    this.entryStarts = entryStarts;
+  }
+
+  /**
+   * Lower case, strip accents and collapse whitespace, so "  Zoe  SMITH", "Zoë Smith" and
+   * "zoe smith" are the same name
+   */
+  static String normalize(String name) {
+    final String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+    final String stripped = MARKS.matcher(decomposed).replaceAll("");
+    return SPACES.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+  }
+
+  /**
+   * The offsets of each word of a normalized name, in UTF-8 bytes
+   */
+  static int[] wordStarts(byte[] key) {
+    int count = key.length == 0 ? 0 : 1;
+    for (byte b : key) {
+      if (b == ' ') {
+        count++;
+      }
+    }
+    final int[] starts = new int[count];
+    int word = 0;
+    for (int i = 0; i < key.length; i++) {
+      if (i == 0 || key[i - 1] == ' ') {
+        starts[word++] = i;
+      }
+    }
+    return starts;
+  }
+
+  int size() {
+    return ids.length;
+  }
+
+  int entryCount() {
+    return entryContacts.length;
+  }
+
+  long id(int contact) {
+    return ids[contact];
+  }
+
+  String name(int contact) {
+    return new String(names, nameOffsets[contact], nameOffsets[contact + 1] - nameOffsets[contact], StandardCharsets.UTF_8);
+  }
+
+  int entryContact(int entry) {
+    return entryContacts[entry];
+  }
+
+  /**
+   * The first entry that sorts at or after the prefix
+   */
+  int lowerBound(byte[] prefix) {
+    int low = 0;
+    int high = entryContacts.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (compareEntry(mid, prefix, Long.MIN_VALUE) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  boolean entryStartsWith(int entry, byte[] prefix) {
+    final int from = keyOffsets[entryContacts[entry]] + entryStarts[entry];
+    final int to = keyOffsets[entryContacts[entry] + 1];
+    return to - from >= prefix.length && Arrays.equals(keys, from, from + prefix.length, prefix, 0, prefix.length);
+  }
+
+  /**
+   * Compare an entry with a key and id in suggestion order
+   */
+  int compareEntry(int entry, byte[] key, long id) {
+    final int contact = entryContacts[entry];
+    final int byKey = Arrays.compareUnsigned(keys, keyOffsets[contact] + entryStarts[entry], keyOffsets[contact + 1],
+      key, 0, key.length);
+    return byKey != 0 ? byKey : Long.compare(ids[contact], id);
+  }
+
+  static final class Builder {
+    private long[] ids = new long[1024];
+
+    private int[] nameOffsets = new int[1025];
+
+    private byte[] names = new byte[16384];
+
+    private int[] keyOffsets = new int[1025];
+
+    private byte[] keys = new byte[16384];
+
+    private long[] entries = new long[2048];
+
+    private int size;
+
+    private int entryCount;
+
+    void add(long id, String name) {
+      final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+      final byte[] keyBytes = normalize(name).getBytes(StandardCharsets.UTF_8);
+
+      if (size + 1 >= ids.length) {
+        ids = Arrays.copyOf(ids, ids.length * 2);
+        nameOffsets = Arrays.copyOf(nameOffsets, ids.length + 1);
+        keyOffsets = Arrays.copyOf(keyOffsets, ids.length + 1);
+      }
+      ids[size] = id;
+      names = append(names, nameOffsets[size], nameBytes);
+      nameOffsets[size + 1] = nameOffsets[size] + nameBytes.length;
+      keys = append(keys, keyOffsets[size], keyBytes);
+      keyOffsets[size + 1] = keyOffsets[size] + keyBytes.length;
+
+      for (int start : wordStarts(keyBytes)) {
+        if (entryCount == entries.length) {
+          entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        // Packed as contact in the high half and word offset in the low half
+        entries[entryCount++] = ((long) size << 32) | start;
+      }
+      size++;
+    }
+
+    ContactNameSegment build() {
+      final ContactNameSegment unsorted = new ContactNameSegment(
+        Arrays.copyOf(ids, size), Arrays.copyOf(nameOffsets, size + 1), Arrays.copyOf(names, nameOffsets[size]),
+        Arrays.copyOf(keyOffsets, size + 1), Arrays.copyOf(keys, keyOffsets[size]), new int[0], new int[0]);
+
+      final long[] sorted = Arrays.copyOf(entries, entryCount);
+      mergeSort(sorted, new long[sorted.length], 0, sorted.length, unsorted);
+
+      final int[] entryContacts = new int[sorted.length];
+      final int[] entryStarts = new int[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        entryContacts[i] = (int) (sorted[i] >>> 32);
+        entryStarts[i] = (int) sorted[i];
+      }
+      return new ContactNameSegment(unsorted.ids, unsorted.nameOffsets, unsorted.names, unsorted.keyOffsets,
+        unsorted.keys, entryContacts, entryStarts);
+    }
+
+    private static byte[] append(byte[] target, int at, byte[] bytes) {
+      final byte[] grown = at + bytes.length > target.length
+        ? Arrays.copyOf(target, Math.max(target.length * 2, at + bytes.length))
+        : target;
+      System.arraycopy(bytes, 0, grown, at, bytes.length);
+      return grown;
+    }
+
+    /**
+     * Sort packed entries without boxing them, which matters with millions of entries
+     */
+    private static void mergeSort(long[] entries, long[] buffer, int from, int to, ContactNameSegment segment) {
+      if (to - from < 2) {
+        return;
+      }
+      final int mid = (from + to) >>> 1;
+      mergeSort(entries, buffer, from, mid, segment);
+      mergeSort(entries, buffer, mid, to, segment);
+      if (compare(entries[mid - 1], entries[mid], segment) <= 0) {
+        return;
+      }
+
+      System.arraycopy(entries, from, buffer, from, to - from);
+      int left = from;
+      int right = mid;
+      for (int i = from; i < to; i++) {
+        if (right >= to || (left < mid && compare(buffer[left], buffer[right], segment) <= 0)) {
+          entries[i] = buffer[left++];
+        } else {
+          entries[i] = buffer[right++];
+        }
+      }
+    }
+
+    private static int compare(long a, long b, ContactNameSegment segment) {
+      final int contactA = (int) (a >>> 32);
+      final int contactB = (int) (b >>> 32);
+      final int byKey = Arrays.compareUnsigned(
+        segment.keys, segment.keyOffsets[contactA] + (int) a, segment.keyOffsets[contactA + 1],
+        segment.keys, segment.keyOffsets[contactB] + (int) b, segment.keyOffsets[contactB + 1]);
+      return byKey != 0 ? byKey : Long.compare(segment.ids[contactA], segment.ids[contactB]);
+    }
+  }
+}
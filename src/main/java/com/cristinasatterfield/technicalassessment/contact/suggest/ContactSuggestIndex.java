@@ -0,0 +1,298 @@
+package com.cristinasatterfield.technicalassessment.contact.suggest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSuggestionDto;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * An in-memory prefix index of contact names for typeahead.
+ *
+ * Most names live in an immutable ContactNameSegment. Writes go to a small sorted
+ * delta, and mark the written id so its entries in the segment are ignored. When the
+ * delta grows past a fraction of the segment, the two are merged into a new segment
+ * on a background thread. Readers take no locks: they read one State, binary search
+ * its segment and walk the delta alongside it.
+ *
+ * The index only sees writes made through this instance. Writes on other instances
+ * appear after the next restart.
+ */
+@Component
+public class ContactSuggestIndex {
+  /**
+   * The delta is merged into the segment once it has this many ids, or an eighth of
+   * the segment's size if that is larger
+   */
+  private static final int MIN_COMPACTION_THRESHOLD = 10000;
+
+  private volatile State state = new State(ContactNameSegment.EMPTY);
+
+  private volatile boolean ready;
+
+  /**
+   * Writes made while a new segment is built, replayed on top of it. Null when no
+   * segment is being built. Guarded by this.
+   */
+  private List<Write> rebuildWrites;
+
+  private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+    final Thread thread = new Thread(runnable, "contact-suggest-compact");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public ContactSuggestIndex(MeterRegistry registry) {
+    Gauge.builder("contact.suggest.index.names", this, index -> index.state.base.size())
+      .description("Names in the compacted suggest index segment")
+      .register(registry);
+    Gauge.builder("contact.suggest.index.delta", this, index -> index.state.overridden.size())
+      .description("Contacts written since the suggest index was last compacted")
+      .register(registry);
+  }
+
+  /**
+   * Replace the index with names read from a source, such as a stream over the
+   * contact table. Writes recorded while the source is read are kept.
+   *
+   * @param source Calls its argument with each id and name
+   */
+  public void load(Consumer<NameSink> source) {
+    synchronized (this) {
+      rebuildWrites = new ArrayList<>();
+    }
+    try {
+      final ContactNameSegment.Builder builder = new ContactNameSegment.Builder();
+      source.accept(builder::add);
+      swapIn(builder.build());
+    } finally {
+      endRebuild();
+    }
+    ready = true;
+  }
+
+  /**
+   * Whether the initial load has finished; until then suggestions are incomplete
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Record that a contact was created or renamed
+   */
+  public void put(long id, String name) {
+    write(new Write(id, name));
+  }
+
+  /**
+   * Record that a contact was deleted
+   */
+  public void remove(long id) {
+    write(new Write(id, null));
+  }
+
+  /**
+   * The first contacts, in normalized name order, with a word starting with the prefix
+   *
+   * @param prefix The text typed so far
+   * @param limit The maximum number of contacts to return
+   * @returns Up to limit contacts, each at most once
+   */
+  public List<ContactSuggestionDto> suggest(String prefix, int limit) {
+    final State current = state;
+    final byte[] key = ContactNameSegment.normalize(prefix).getBytes(StandardCharsets.UTF_8);
+    final ContactNameSegment base = current.base;
+    final Map<Long, ContactSuggestionDto> found = new LinkedHashMap<>();
+
+    int entry = base.lowerBound(key);
+    final Iterator<Map.Entry<DeltaKey, String>> delta = current.delta.tailMap(new DeltaKey(key, Long.MIN_VALUE)).entrySet().iterator();
+    Map.Entry<DeltaKey, String> next = advance(delta, key);
+
+    while (found.size() < limit) {
+      final boolean baseHasMore = entry < base.entryCount() && base.entryStartsWith(entry, key);
+      if (!baseHasMore && next == null) {
+        break;
+      }
+
+      if (baseHasMore && (next == null || base.compareEntry(entry, next.getKey().bytes, next.getKey().id) < 0)) {
+        final int contact = base.entryContact(entry++);
+        final long id = base.id(contact);
+        if (!current.overridden.contains(id) && !found.containsKey(id)) {
+          found.put(id, new ContactSuggestionDto(id, base.name(contact)));
+        }
+      } else {
+        found.putIfAbsent(next.getKey().id, new ContactSuggestionDto(next.getKey().id, next.getValue()));
+        next = advance(delta, key);
+      }
+    }
+    return new ArrayList<>(found.values());
+  }
+
+  private synchronized void write(Write write) {
+    write.applyTo(state);
+    if (rebuildWrites != null) {
+      rebuildWrites.add(write);
+      return;
+    }
+
+    final State current = state;
+    if (ready && current.overridden.size() > Math.max(MIN_COMPACTION_THRESHOLD, current.base.size() / 8)) {
+      rebuildWrites = new ArrayList<>();
+      compactor.execute(() -> compact(current));
+    }
+  }
+
+  private void compact(State from) {
+    try {
+      final ContactNameSegment.Builder builder = new ContactNameSegment.Builder();
+      for (int contact = 0; contact < from.base.size(); contact++) {
+        if (!from.overridden.contains(from.base.id(contact))) {
+          builder.add(from.base.id(contact), from.base.name(contact));
+        }
+      }
+      // Writes after the copy started are in rebuildWrites and are replayed by swapIn
+      from.names.forEach(builder::add);
+      swapIn(builder.build());
+    } finally {
+      endRebuild();
+    }
+  }
+
+  private synchronized void swapIn(ContactNameSegment segment) {
+    final State next = new State(segment);
+    for (Write write : rebuildWrites) {
+      write.applyTo(next);
+    }
+    state = next;
+  }
+
+  /**
+   * Stop recording writes for a rebuild, which has been swapped in or has failed. The
+   * writes are already in the current state, so a failed rebuild loses nothing, and
+   * later writes can start a new one.
+   */
+  private synchronized void endRebuild() {
+    rebuildWrites = null;
+  }
+
+  private static Map.Entry<DeltaKey, String> advance(Iterator<Map.Entry<DeltaKey, String>> delta, byte[] prefix) {
+    if (!delta.hasNext()) {
+      return null;
+    }
+    final Map.Entry<DeltaKey, String> entry = delta.next();
+    final byte[] bytes = entry.getKey().bytes;
+    return bytes.length >= prefix.length && Arrays.equals(bytes, 0, prefix.length, prefix, 0, prefix.length) ? entry : null;
+  }
+
+  /**
+   * Receives the names read by load
+   */
+  @FunctionalInterface
+  public interface NameSink {
+    void add(long id, String name);
+  }
+
+  /**
+   * A segment, plus the writes made since it was built
+   */
+  private static final class State {
+    private final ContactNameSegment base;
+
+    /**
+     * Ids whose entries in base are out of date; their current names are in delta
+     */
+    private final Set<Long> overridden = ConcurrentHashMap.newKeySet();
+
+    private final ConcurrentSkipListMap<DeltaKey, String> delta = new ConcurrentSkipListMap<>();
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    private State(ContactNameSegment base) {
+      this.base = base;
+    }
+  }
+
+  private static final class Write {
+    private final long id;
+
+    private final String name;
+
+    private Write(long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    /**
+     * Callers hold the index lock, so writes to one State never interleave
+     */
+    private void applyTo(State state) {
+      state.overridden.add(id);
+      final String previous = name == null ? state.names.remove(id) : state.names.put(id, name);
+      if (previous != null) {
+        for (byte[] key : keys(previous)) {
+          state.delta.remove(new DeltaKey(key, id));
+        }
+      }
+      if (name != null) {
+        for (byte[] key : keys(name)) {
+          state.delta.put(new DeltaKey(key, id), name);
+        }
+      }
+    }
+
+    private static List<byte[]> keys(String name) {
+      final byte[] key = ContactNameSegment.normalize(name).getBytes(StandardCharsets.UTF_8);
+      final List<byte[]> keys = new ArrayList<>();
+      for (int start : ContactNameSegment.wordStarts(key)) {
+        keys.add(Arrays.copyOfRange(key, start, key.length));
+      }
+      return keys;
+    }
+  }
+
+  /**
+   * An entry of the delta, ordered like the entries of a segment
+   */
+  private static final class DeltaKey implements Comparable<DeltaKey> {
+    private final byte[] bytes;
+
+    private final long id;
+
+    private DeltaKey(byte[] bytes, long id) {
+      this.bytes = bytes;
+      this.id = id;
+    }
+
+    @Override
+    public int compareTo(DeltaKey other) {
+      final int byKey = Arrays.compareUnsigned(bytes, other.bytes);
+      return byKey != 0 ? byKey : Long.compare(id, other.id);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof DeltaKey && compareTo((DeltaKey) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(bytes) * 31 + Long.hashCode(id);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.cristinasatterfield.technicalassessment.contact.suggest;
+
+import java.time.Duration;
+
+import com.cristinasatterfield.technicalassessment.datasource.StatementTimeouts;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills the suggest index from the contact table once the application is up. Rows are
+ * streamed with a cursor, so only the packed index is held in memory, and the load
+ * runs in the background so it does not hold up startup. A failed load is retried,
+ * waiting twice as long after each failure up to the maximum delay; suggestions
+ * answer 503 until a load succeeds.
+ */
+@Component
+public class ContactSuggestIndexLoader {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContactSuggestIndexLoader.class);
+
+  private static final int FETCH_SIZE = 10000;
+
+  private final ContactSuggestIndex index;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate readOnlyTransaction;
+
+  private final StatementTimeouts statementTimeouts;
+
+  private final Duration initialRetryDelay;
+
+  private final Duration maxRetryDelay;
+
+  public ContactSuggestIndexLoader(
+    ContactSuggestIndex index,
+    JdbcTemplate jdbcTemplate,
+    PlatformTransactionManager transactionManager,
+    StatementTimeouts statementTimeouts,
+    @Value("${contact.suggest.load.initial-retry-delay:1s}") Duration initialRetryDelay,
+    @Value("${contact.suggest.load.max-retry-delay:1m}") Duration maxRetryDelay
+  ) {
+    this.index = index;
+    this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+    this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.statementTimeouts = statementTimeouts;
+    this.initialRetryDelay = initialRetryDelay;
+    this.maxRetryDelay = maxRetryDelay;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadInBackground() {
+    final Thread thread = new Thread(this::loadUntilLoaded, "contact-suggest-load");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  void loadUntilLoaded() {
+    long delayMillis = initialRetryDelay.toMillis();
+    while (!load()) {
+      LOGGER.warn("Retrying the contact suggest index load in {} ms", delayMillis);
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      delayMillis = Math.min(delayMillis * 2, maxRetryDelay.toMillis());
+    }
+  }
+
+  /**
+   * @returns Whether the index was loaded
+   */
+  boolean load() {
+    final long start = System.nanoTime();
+    try {
+      // Postgres only honours the fetch size inside a transaction
+      readOnlyTransaction.executeWithoutResult(status -> {
+        statementTimeouts.forBulk(jdbcTemplate);
+        index.load(sink -> jdbcTemplate.query("SELECT id, name FROM contact", resultSet -> {
+          sink.add(resultSet.getLong("id"), resultSet.getString("name"));
+        }));
+      });
+      LOGGER.info("Loaded the contact suggest index in {} ms", (System.nanoTime() - start) / 1_000_000);
+      return true;
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to load the contact suggest index", e);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Sizes the primary connection pool from the database it connects to when
+ * app.datasource.pool.auto-size is set, instead of Hikari's fixed default of 10.
+ * A pool much larger than the database has cores only queues statements on the
+ * server, where nothing bounds the wait; a smaller one leaves the database idle.
+ *
+ * An explicit spring.datasource.hikari.maximum-pool-size, such as the one the
+ * virtual-threads profile sets, is left alone.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.pool.auto-size", havingValue = "true")
+public class DataSourcePoolConfig {
+  private static final String PREFIX = "app.datasource.pool.";
+
+  /**
+   * Static, so it is registered before the DataSource it post-processes is created
+   */
+  @Bean
+  public static DataSourcePoolSizer dataSourcePoolSizer(Environment environment) {
+    if (environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+      return new DataSourcePoolSizer(environment.getRequiredProperty("spring.datasource.hikari.maximum-pool-size", Integer.class));
+    }
+    return new DataSourcePoolSizer(DataSourcePoolSizer.poolSize(
+      // The database often runs on hardware like this instance's; set it when it does not
+      environment.getProperty(PREFIX + "database-cores", Integer.class, Runtime.getRuntime().availableProcessors()),
+      environment.getProperty(PREFIX + "database-max-connections", Integer.class, 100),
+      environment.getProperty(PREFIX + "reserved-connections", Integer.class, 10),
+      environment.getProperty(PREFIX + "instances", Integer.class, 1)
+    ));
+  }
+}
@@ -0,0 +1,50 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Sets the maximum size of the primary connection pools, the auto-configured one or
+ * the primary behind replica routing, once they are bound from spring.datasource.hikari.
+ * Replica pools are sized by app.datasource.routing.replica-pool-size.
+ */
+public class DataSourcePoolSizer implements BeanPostProcessor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DataSourcePoolSizer.class);
+
+  private final int poolSize;
+
+  public DataSourcePoolSizer(int poolSize) {
+    this.poolSize = poolSize;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof HikariDataSource) {
+      ((HikariDataSource) bean).setMaximumPoolSize(poolSize);
+      LOGGER.info("Sized connection pool {} to {} connections", beanName, poolSize);
+    }
+    return bean;
+  }
+
+  /**
+   * Size a pool so the database runs about as many statements at once as it has
+   * cores to run them on, (cores * 2) + 1 across every instance, the extra
+   * connections covering those waiting on I/O. Never more than this instance's share
+   * of the connections the database accepts.
+   *
+   * @param databaseCores The number of cores of the database server
+   * @param databaseMaxConnections The database's max_connections
+   * @param reservedConnections Connections kept free for superusers, migrations and replication
+   * @param instances The number of application instances sharing the database
+   * @returns The maximum number of connections of one instance's pool, at least 1
+   */
+  public static int poolSize(int databaseCores, int databaseMaxConnections, int reservedConnections, int instances) {
+    final int optimal = databaseCores * 2 + 1;
+    final int perInstance = (optimal + instances - 1) / instances;
+    final int share = (databaseMaxConnections - reservedConnections) / instances;
+    return Math.max(1, Math.min(perInstance, share));
+  }
+}
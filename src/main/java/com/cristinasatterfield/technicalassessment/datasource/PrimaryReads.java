@@ -0,0 +1,25 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+/**
+ * Marks the current thread's reads as needing the primary, for example because the
+ * client wrote moments ago and a replica may not have the write yet.
+ */
+public final class PrimaryReads {
+  private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+
+  private PrimaryReads() {
+
+  }
+
+  public static void force() {
+    FORCED.set(Boolean.TRUE);
+  }
+
+  public static void clear() {
+    FORCED.remove();
+  }
+
+  public static boolean isForced() {
+    return FORCED.get() != null;
+  }
+}
@@ -0,0 +1,68 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Keeps a client's reads on the primary for a short window after it writes, so it
+ * always sees its own writes even when the replicas lag. The window travels in a
+ * cookie rather than in memory, so it holds whichever instance serves the next request.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+  public static final String COOKIE_NAME = "primary-reads-until";
+
+  private final Duration window;
+
+  public ReadYourWritesFilter(Duration window) {
+    this.window = window;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    final long now = System.currentTimeMillis();
+
+    if (isWrite(request)) {
+      final Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + window.toMillis()));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, window.getSeconds()));
+      response.addCookie(cookie);
+      PrimaryReads.force();
+    } else if (readsPrimaryUntil(request) > now) {
+      PrimaryReads.force();
+    }
+
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      PrimaryReads.clear();
+    }
+  }
+
+  private static boolean isWrite(HttpServletRequest request) {
+    final String method = request.getMethod();
+    return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+  }
+
+  private static long readsPrimaryUntil(HttpServletRequest request) {
+    final Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+    if (cookie == null) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(cookie.getValue());
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
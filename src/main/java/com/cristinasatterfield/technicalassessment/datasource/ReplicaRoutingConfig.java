@@ -0,0 +1,78 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.cristinasatterfield.technicalassessment.metrics.QueryCountPostProcessor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the single auto-configured DataSource with a primary plus read replicas
+ * when app.datasource.routing.enabled is set. Read-only transactions, such as the
+ * repository finders, go to a replica; everything else goes to the primary.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(
+    HikariDataSource primaryDataSource,
+    ReplicaRoutingProperties properties,
+    ObjectProvider<MeterRegistry> meterRegistry
+  ) {
+    final List<DataSource> replicas = new ArrayList<>();
+    for (ReplicaRoutingProperties.Replica replica : properties.getReplicas()) {
+      final HikariDataSource dataSource = new HikariDataSource();
+      dataSource.setPoolName("replica-" + replicas.size());
+      dataSource.setJdbcUrl(replica.getUrl());
+      dataSource.setUsername(replica.getUsername());
+      dataSource.setPassword(replica.getPassword());
+      dataSource.setMaximumPoolSize(properties.getReplicaPoolSize());
+      dataSource.setReadOnly(true);
+      meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+      // Not beans, so not seen by QueryCountPostProcessor
+      QueryCountPostProcessor.countQueries(dataSource);
+      replicas.add(dataSource);
+    }
+
+    return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getMaxLag(), properties.getHealthCheckInterval());
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+  }
+
+  @Bean
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaRoutingProperties properties) {
+    final FilterRegistrationBean<ReadYourWritesFilter> registration =
+      new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.getReadYourWritesWindow()));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return registration;
+  }
+}
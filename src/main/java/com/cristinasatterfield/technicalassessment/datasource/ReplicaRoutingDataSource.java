@@ -0,0 +1,137 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a healthy replica, round robin, and everything else
+ * to the primary. Wrap it in a LazyConnectionDataSourceProxy: the transaction is only
+ * marked read-only after it begins, so the physical connection has to be chosen
+ * lazily at the first statement.
+ *
+ * Each replica is checked on a fixed interval. A replica that fails the check or
+ * lags the primary by more than maxLag gets no reads until a later check passes.
+ *
+ * The replica pools belong to it and are closed with it; the primary is left to its owner.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  private static final String PRIMARY = "primary";
+
+  /**
+   * Replay lag in seconds; zero when the replica has replayed everything it received
+   */
+  private static final String LAG_QUERY = "SELECT CASE "
+    + "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+    + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+  private final List<Replica> replicas;
+
+  private final Duration maxLag;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  private final ScheduledExecutorService healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    final Thread thread = new Thread(runnable, "replica-health-check");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag, Duration healthCheckInterval) {
+    this.maxLag = maxLag;
+    this.replicas = new ArrayList<>();
+    for (int i = 0; i < replicas.size(); i++) {
+      this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+    }
+
+    final Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    targets.putAll(this.replicas.stream().collect(Collectors.toMap(replica -> replica.name, replica -> replica.dataSource)));
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+
+    checkReplicas();
+    healthChecks.scheduleWithFixedDelay(this::checkReplicas,
+      healthCheckInterval.toMillis(), healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PrimaryReads.isForced() || replicas.isEmpty()) {
+      return PRIMARY;
+    }
+
+    final int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+    for (int i = 0; i < replicas.size(); i++) {
+      final Replica replica = replicas.get((start + i) % replicas.size());
+      if (replica.healthy) {
+        return replica.name;
+      }
+    }
+    return PRIMARY;
+  }
+
+  void checkReplicas() {
+    for (Replica replica : replicas) {
+      boolean healthy;
+      try {
+        final Double lagSeconds = new JdbcTemplate(replica.dataSource).queryForObject(LAG_QUERY, Double.class);
+        healthy = lagSeconds != null && lagSeconds * 1000 <= maxLag.toMillis();
+      } catch (RuntimeException e) {
+        healthy = false;
+      }
+
+      if (healthy && !replica.healthy) {
+        LOGGER.info("Replica {} is serving reads", replica.name);
+      } else if (!healthy && replica.healthy) {
+        LOGGER.warn("Replica {} failed its health check or is lagging; reads fall back to other replicas or the primary", replica.name);
+      }
+      replica.healthy = healthy;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    healthChecks.shutdownNow();
+    for (Replica replica : replicas) {
+      if (replica.dataSource instanceof AutoCloseable) {
+        try {
+          ((AutoCloseable) replica.dataSource).close();
+        } catch (Exception e) {
+          LOGGER.warn("Failed to close replica {}", replica.name, e);
+        }
+      }
+    }
+  }
+
+  private static class Replica {
+    private final String name;
+
+    private final DataSource dataSource;
+
+    private volatile boolean healthy;
+
+    Replica(String name, DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Read replica settings under app.datasource.routing. The primary is still
+ * configured with the usual spring.datasource properties.
+ */
+@ConfigurationProperties("app.datasource.routing")
+public class ReplicaRoutingProperties {
+  private boolean enabled;
+
+  private List<Replica> replicas = new ArrayList<>();
+
+  /**
+   * Replicas further behind the primary than this are skipped until they catch up
+   */
+  private Duration maxLag = Duration.ofSeconds(5);
+
+  private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+  /**
+   * How long a client's reads stay on the primary after it writes
+   */
+  private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+  private int replicaPoolSize = 10;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<Replica> getReplicas() {
+    return replicas;
+  }
+
+  public void setReplicas(List<Replica> replicas) {
+    this.replicas = replicas;
+  }
+
+  public Duration getMaxLag() {
+    return maxLag;
+  }
+
+  public void setMaxLag(Duration maxLag) {
+    this.maxLag = maxLag;
+  }
+
+  public Duration getHealthCheckInterval() {
+    return healthCheckInterval;
+  }
+
+  public void setHealthCheckInterval(Duration healthCheckInterval) {
+    this.healthCheckInterval = healthCheckInterval;
+  }
+
+  public Duration getReadYourWritesWindow() {
+    return readYourWritesWindow;
+  }
+
+  public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+    this.readYourWritesWindow = readYourWritesWindow;
+  }
+
+  public int getReplicaPoolSize() {
+    return replicaPoolSize;
+  }
+
+  public void setReplicaPoolSize(int replicaPoolSize) {
+    this.replicaPoolSize = replicaPoolSize;
+  }
+
+  public static class Replica {
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+
+    public void setPassword(String password) {
+      this.password = password;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Statement timeouts per kind of query. Lookups and writes run under the connection
+ * default, set once per connection with the statement_timeout startup option, so
+ * they cost nothing per request. Searches and bulk reads and writes override it for
+ * their own transaction: searches can be cut off sooner, and exports, imports and
+ * index loads legitimately run far longer.
+ *
+ * An unset timeout leaves the connection default in place and sends nothing; zero
+ * turns the timeout off.
+ */
+@Component
+public class StatementTimeouts {
+  private final Duration search;
+
+  private final Duration bulk;
+
+  public StatementTimeouts(
+    @Value("${app.datasource.statement-timeout.search:}") Duration search,
+    @Value("${app.datasource.statement-timeout.bulk:0}") Duration bulk
+  ) {
+    this.search = search;
+    this.bulk = bulk;
+  }
+
+  /**
+   * Apply the search timeout to the rest of the current transaction
+   */
+  public void forSearch(JdbcTemplate jdbcTemplate) {
+    apply(jdbcTemplate, search);
+  }
+
+  /**
+   * Apply the bulk timeout to the rest of the current transaction
+   */
+  public void forBulk(JdbcTemplate jdbcTemplate) {
+    apply(jdbcTemplate, bulk);
+  }
+
+  private static void apply(JdbcTemplate jdbcTemplate, Duration timeout) {
+    if (timeout == null) {
+      return;
+    }
+    // Local to the transaction, so the connection goes back to the pool with its default
+    jdbcTemplate.queryForObject("SELECT set_config('statement_timeout', ?, true)", String.class, timeout.toMillis() + "ms");
+  }
+}
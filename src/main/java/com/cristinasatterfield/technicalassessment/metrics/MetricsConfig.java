@@ -0,0 +1,26 @@
+package com.cristinasatterfield.technicalassessment.metrics;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class MetricsConfig {
+  /**
+   * Records a timer for every method annotated with @Timed
+   */
+  @Bean
+  public TimedAspect timedAspect(MeterRegistry registry) {
+    return new TimedAspect(registry);
+  }
+
+  /**
+   * Static, so it is registered before the DataSources it post-processes are created
+   */
+  @Bean
+  public static QueryCountPostProcessor queryCountPostProcessor() {
+    return new QueryCountPostProcessor();
+  }
+}
@@ -0,0 +1,58 @@
+package com.cristinasatterfield.technicalassessment.metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Counts the statements prepared or created on the current thread through the
+ * connections of a DataSource, so QueryCountFilter can report statements per request
+ * whether they come from Hibernate or JdbcTemplate.
+ */
+public class QueryCountDataSource extends DelegatingDataSource {
+  private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+  private static final Set<String> STATEMENT_METHODS = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+  public QueryCountDataSource(DataSource target) {
+    super(target);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return counting(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return counting(super.getConnection(username, password));
+  }
+
+  public static void reset() {
+    COUNT.get()[0] = 0;
+  }
+
+  public static int count() {
+    return COUNT.get()[0];
+  }
+
+  private static Connection counting(Connection connection) {
+    return (Connection) Proxy.newProxyInstance(QueryCountDataSource.class.getClassLoader(),
+      new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+        if (STATEMENT_METHODS.contains(method.getName())) {
+          COUNT.get()[0]++;
+        }
+        try {
+          return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+          throw e.getTargetException();
+        }
+      });
+  }
+}
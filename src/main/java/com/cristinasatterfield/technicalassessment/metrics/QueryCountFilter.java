@@ -0,0 +1,47 @@
+package com.cristinasatterfield.technicalassessment.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records how many JDBC statements each request prepared, tagged like
+ * http.server.requests so the two can be read side by side. Statements are counted
+ * by QueryCountDataSource on the request thread, so work a request hands to another
+ * thread, such as an async export, is not counted.
+ */
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+  private final MeterRegistry registry;
+
+  public QueryCountFilter(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    QueryCountDataSource.reset();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      DistributionSummary.builder("http.server.requests.queries")
+        .description("JDBC statements prepared per request")
+        .tag("method", request.getMethod())
+        .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+        .register(registry)
+        .record(QueryCountDataSource.count());
+    }
+  }
+}
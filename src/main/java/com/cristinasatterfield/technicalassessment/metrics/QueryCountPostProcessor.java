@@ -0,0 +1,33 @@
+package com.cristinasatterfield.technicalassessment.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Has each Hikari pool open its connections through a QueryCountDataSource. The pool
+ * hands out its own proxies around those connections, so the pool beans keep their
+ * type and every statement run on a pooled connection is counted.
+ */
+public class QueryCountPostProcessor implements BeanPostProcessor {
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof HikariDataSource) {
+      countQueries((HikariDataSource) bean);
+    }
+    return bean;
+  }
+
+  /**
+   * Count the statements of a pool configured with a JDBC URL, the way Hikari would
+   * connect to it itself. Must be called before the pool starts.
+   */
+  public static void countQueries(HikariDataSource pool) {
+    if (pool.getDataSource() != null || pool.getDataSourceClassName() != null || pool.getJdbcUrl() == null) {
+      return;
+    }
+    pool.setDataSource(new QueryCountDataSource(new DriverDataSource(pool.getJdbcUrl(), pool.getDriverClassName(),
+      pool.getDataSourceProperties(), pool.getUsername(), pool.getPassword())));
+  }
+}
@@ -0,0 +1,61 @@
+package com.cristinasatterfield.technicalassessment.ratelimit;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties.ForwardHeadersStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-client rate limiting and load shedding for the API when app.rate-limit.enabled
+ * is set. The limits are per instance.
+ *
+ * Limiting by address needs server.forward-headers-strategy, or behind a proxy every
+ * client would share the proxy's address and one bucket.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+  @Bean
+  public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+    RateLimitProperties properties,
+    ServerProperties serverProperties,
+    ObjectProvider<HikariDataSource> pools,
+    MeterRegistry registry
+  ) {
+    final ForwardHeadersStrategy forwardHeaders = serverProperties.getForwardHeadersStrategy();
+    if (properties.isByAddress() && (forwardHeaders == null || forwardHeaders == ForwardHeadersStrategy.NONE)) {
+      throw new IllegalStateException("app.rate-limit.by-address needs server.forward-headers-strategy set to native or framework");
+    }
+
+    // The auto-configured pool, or the primary pool when replica routing is enabled
+    final List<HikariDataSource> primaryPools = pools.orderedStream().collect(Collectors.toList());
+    final IntSupplier pendingConnections = () -> primaryPools.stream().mapToInt(RateLimitConfig::threadsAwaiting).sum();
+
+    final FilterRegistrationBean<RateLimitFilter> registration =
+      new FilterRegistrationBean<>(new RateLimitFilter(properties, pendingConnections, registry));
+    // After the request metrics filter, so rejected requests are still timed
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+    return registration;
+  }
+
+  private static int threadsAwaiting(HikariDataSource pool) {
+    // Null until the pool has started
+    final HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+    return bean == null ? 0 : bean.getThreadsAwaitingConnection();
+  }
+}
@@ -0,0 +1,173 @@
+package com.cristinasatterfield.technicalassessment.ratelimit;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rejects API requests before they reach a connection:
+ *
+ * - 429 when the client has spent its token bucket for the request class. Clients are
+ *   known by a configured API key, or by their address when app.rate-limit.by-address
+ *   is set; requests with neither are not limited, only shed.
+ * - 503 for requests other than lookups while threads are queueing for a database connection
+ * - 503 for searches beyond the concurrent search limit, and change feed requests
+ *   beyond theirs
+ *
+ * Rejections carry Retry-After and are counted in http.server.requests.rejected.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+  private final Map<RequestClass, TokenBucketTable> buckets = new EnumMap<>(RequestClass.class);
+
+  private final String apiKeyHeader;
+
+  private final Set<String> apiKeys;
+
+  private final boolean byAddress;
+
+  private final IntSupplier pendingConnections;
+
+  private final int maxPendingConnections;
+
+  /**
+   * Permits for the request classes limited in how many run at once
+   */
+  private final Map<RequestClass, Semaphore> running = new EnumMap<>(RequestClass.class);
+
+  private final MeterRegistry registry;
+
+  public RateLimitFilter(RateLimitProperties properties, IntSupplier pendingConnections, MeterRegistry registry) {
+    for (RequestClass requestClass : RequestClass.values()) {
+      final RateLimitProperties.Budget budget = properties.budgetFor(requestClass);
+      buckets.put(requestClass, new TokenBucketTable(properties.getSlots(), budget.getRatePerSecond(), budget.getBurst()));
+    }
+    this.apiKeyHeader = properties.getApiKeyHeader();
+    this.apiKeys = Set.copyOf(properties.getApiKeys());
+    this.byAddress = properties.isByAddress();
+    this.pendingConnections = pendingConnections;
+    this.maxPendingConnections = properties.getMaxPendingConnections();
+    running.put(RequestClass.SEARCH, new Semaphore(properties.getMaxConcurrentSearches()));
+    running.put(RequestClass.FEED, new Semaphore(properties.getMaxConcurrentFeeds()));
+    this.registry = registry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith("/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    final RequestClass requestClass = RequestClass.of(request);
+
+    final String clientKey = clientKey(request);
+    final long waitNanos = clientKey == null ? 0 : buckets.get(requestClass).tryAcquire(clientKey);
+    if (waitNanos > 0) {
+      reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1, requestClass, "rate-limit");
+      return;
+    }
+
+    if (requestClass != RequestClass.LOOKUP && pendingConnections.getAsInt() > maxPendingConnections) {
+      reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, requestClass, "pool-saturated");
+      return;
+    }
+
+    final Semaphore permits = running.get(requestClass);
+    if (permits == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    if (!permits.tryAcquire()) {
+      reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, requestClass, "concurrency");
+      return;
+    }
+    boolean async = false;
+    try {
+      filterChain.doFilter(request, response);
+      async = request.isAsyncStarted();
+    } finally {
+      if (async) {
+        // Exports and the change feed go on writing after doFilter returns
+        request.getAsyncContext().addListener(new ReleaseOnComplete(permits));
+      } else {
+        permits.release();
+      }
+    }
+  }
+
+  /**
+   * @returns The key of the client's bucket, or null if the request has nothing the client can be trusted to be known by
+   */
+  private String clientKey(HttpServletRequest request) {
+    final String apiKey = request.getHeader(apiKeyHeader);
+    if (apiKey != null && apiKeys.contains(apiKey)) {
+      return "key:" + apiKey;
+    }
+    return byAddress ? "ip:" + request.getRemoteAddr() : null;
+  }
+
+  private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, RequestClass requestClass, String reason) {
+    Counter.builder("http.server.requests.rejected")
+      .description("API requests rejected by the rate limiter or shed under load")
+      .tag("class", requestClass.name().toLowerCase())
+      .tag("reason", reason)
+      .register(registry)
+      .increment();
+
+    response.setStatus(status.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+  }
+
+  /**
+   * Releases a permit once an async request completes, which it does after an error or
+   * timeout too
+   */
+  private static class ReleaseOnComplete implements AsyncListener {
+    private final Semaphore permits;
+
+    private ReleaseOnComplete(Semaphore permits) {
+      this.permits = permits;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      permits.release();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // Started again from an async dispatch, which this filter does not see
+      event.getAsyncContext().addListener(this);
+    }
+  }
+}
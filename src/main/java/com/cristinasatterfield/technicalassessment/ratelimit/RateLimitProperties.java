@@ -0,0 +1,203 @@
+package com.cristinasatterfield.technicalassessment.ratelimit;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Rate limit and load shedding settings under app.rate-limit
+ */
+@ConfigurationProperties("app.rate-limit")
+public class RateLimitProperties {
+  private boolean enabled;
+
+  /**
+   * Clients that send one of the api-keys in this header are limited by it
+   */
+  private String apiKeyHeader = "X-API-Key";
+
+  /**
+   * The keys clients are known by. Any other value of the header is ignored, so a
+   * client cannot spread its requests over keys it made up.
+   */
+  private Set<String> apiKeys = new HashSet<>();
+
+  /**
+   * Limit requests without a known key by their address. The address is only the
+   * client's own with server.forward-headers-strategy set behind a proxy, so it is
+   * required; without this, such requests are only shed under load.
+   */
+  private boolean byAddress;
+
+  /**
+   * Buckets per request class. Each costs 8 bytes.
+   */
+  private int slots = 65536;
+
+  private Budget lookup = new Budget(500, 1000);
+
+  private Budget search = new Budget(20, 40);
+
+  private Budget feed = new Budget(10, 20);
+
+  private Budget write = new Budget(50, 100);
+
+  /**
+   * Requests other than lookups are shed with 503 while more threads than this wait for a connection
+   */
+  private int maxPendingConnections = 10;
+
+  /**
+   * Searches running at once across all clients; more are shed with 503
+   */
+  private int maxConcurrentSearches = 16;
+
+  /**
+   * Change feed long-polls and streams open at once across all clients; more are shed with 503
+   */
+  private int maxConcurrentFeeds = 256;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getApiKeyHeader() {
+    return apiKeyHeader;
+  }
+
+  public void setApiKeyHeader(String apiKeyHeader) {
+    this.apiKeyHeader = apiKeyHeader;
+  }
+
+  public Set<String> getApiKeys() {
+    return apiKeys;
+  }
+
+  public void setApiKeys(Set<String> apiKeys) {
+    this.apiKeys = apiKeys;
+  }
+
+  public boolean isByAddress() {
+    return byAddress;
+  }
+
+  public void setByAddress(boolean byAddress) {
+    this.byAddress = byAddress;
+  }
+
+  public int getSlots() {
+    return slots;
+  }
+
+  public void setSlots(int slots) {
+    this.slots = slots;
+  }
+
+  public Budget getLookup() {
+    return lookup;
+  }
+
+  public void setLookup(Budget lookup) {
+    this.lookup = lookup;
+  }
+
+  public Budget getSearch() {
+    return search;
+  }
+
+  public void setSearch(Budget search) {
+    this.search = search;
+  }
+
+  public Budget getFeed() {
+    return feed;
+  }
+
+  public void setFeed(Budget feed) {
+    this.feed = feed;
+  }
+
+  public Budget getWrite() {
+    return write;
+  }
+
+  public void setWrite(Budget write) {
+    this.write = write;
+  }
+
+  public int getMaxPendingConnections() {
+    return maxPendingConnections;
+  }
+
+  public void setMaxPendingConnections(int maxPendingConnections) {
+    this.maxPendingConnections = maxPendingConnections;
+  }
+
+  public int getMaxConcurrentSearches() {
+    return maxConcurrentSearches;
+  }
+
+  public void setMaxConcurrentSearches(int maxConcurrentSearches) {
+    this.maxConcurrentSearches = maxConcurrentSearches;
+  }
+
+  public int getMaxConcurrentFeeds() {
+    return maxConcurrentFeeds;
+  }
+
+  public void setMaxConcurrentFeeds(int maxConcurrentFeeds) {
+    this.maxConcurrentFeeds = maxConcurrentFeeds;
+  }
+
+  public Budget budgetFor(RequestClass requestClass) {
+    switch (requestClass) {
+      case LOOKUP:
+        return lookup;
+      case SEARCH:
+        return search;
+      case FEED:
+        return feed;
+      default:
+        return write;
+    }
+  }
+
+  /**
+   * A sustained rate per client, and the burst a client may spend at once after being idle
+   */
+  public static class Budget {
+    private double ratePerSecond;
+
+    private int burst;
+
+    public Budget() {
+
+    }
+
+    public Budget(double ratePerSecond, int burst) {
+      this.ratePerSecond = ratePerSecond;
+      this.burst = burst;
+    }
+
+    public double getRatePerSecond() {
+      return ratePerSecond;
+    }
+
+    public void setRatePerSecond(double ratePerSecond) {
+      this.ratePerSecond = ratePerSecond;
+    }
+
+    public int getBurst() {
+      return burst;
+    }
+
+    public void setBurst(int burst) {
+      this.burst = burst;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.cristinasatterfield.technicalassessment.ratelimit;
+
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * The budget a request is charged to. Looking a contact up by id is a primary key read
+ * that is usually served from the cache, and suggestions are served from memory, so
+ * both get a far larger budget than searches, pages and exports, which scan indexes
+ * and hold a connection for longer. Change feed requests mostly wait for changes
+ * without a connection, for up to a stream timeout, so they are limited separately
+ * rather than holding search permits.
+ */
+public enum RequestClass {
+  LOOKUP,
+  SEARCH,
+  FEED,
+  WRITE;
+
+  private static final Pattern LOOKUP_PATH = Pattern.compile("/api/v1/contact/(\\d+|suggest)");
+
+  private static final Pattern FEED_PATH = Pattern.compile("/api/v1/contact/changes(/stream)?");
+
+  public static RequestClass of(HttpServletRequest request) {
+    final String method = request.getMethod();
+    if (!"GET".equals(method) && !"HEAD".equals(method)) {
+      return WRITE;
+    }
+    final String path = request.getRequestURI();
+    if (LOOKUP_PATH.matcher(path).matches()) {
+      return LOOKUP;
+    }
+    return FEED_PATH.matcher(path).matches() ? FEED : SEARCH;
+  }
+}
@@ -0,0 +1,68 @@
+package com.cristinasatterfield.technicalassessment.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size table of token buckets, one per client key. Each bucket is a single
+ * long updated with compare-and-set, using the generic cell rate algorithm: the slot
+ * holds the time at which the bucket will next be full, which is equivalent to
+ * tracking the token count and the last refill.
+ *
+ * Keys are hashed into the table rather than stored, so memory stays the same
+ * however many clients appear. Two clients that hash to the same slot share a
+ * budget; with enough slots for the active clients that is rare, and it can only
+ * make limiting stricter, never looser.
+ */
+public class TokenBucketTable {
+  private final AtomicLongArray slots;
+
+  private final int mask;
+
+  private final long nanosPerToken;
+
+  private final long burstNanos;
+
+  private final long origin = System.nanoTime();
+
+  /**
+   * @param slots The number of buckets, rounded up to a power of two
+   * @param tokensPerSecond The rate at which each bucket refills
+   * @param burst The number of tokens a full bucket holds
+   */
+  public TokenBucketTable(int slots, double tokensPerSecond, int burst) {
+    final int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+    this.slots = new AtomicLongArray(size);
+    this.mask = size - 1;
+    this.nanosPerToken = (long) (1_000_000_000L / tokensPerSecond);
+    this.burstNanos = nanosPerToken * burst;
+  }
+
+  /**
+   * Take a token from the key's bucket
+   *
+   * @param key The client key
+   * @returns 0 if a token was taken, otherwise the nanoseconds until one is available
+   */
+  public long tryAcquire(String key) {
+    final int slot = spread(key.hashCode()) & mask;
+    // Offset so an unused slot, which holds 0, reads as a full bucket
+    final long now = System.nanoTime() - origin + burstNanos;
+
+    while (true) {
+      final long full = slots.get(slot);
+      final long next = Math.max(full, now) + nanosPerToken;
+      if (next - now > burstNanos) {
+        return next - now - burstNanos;
+      }
+      if (slots.compareAndSet(slot, full, next)) {
+        return 0;
+      }
+    }
+  }
+
+  private static int spread(int hash) {
+    // Mix the high bits in, as String hash codes of similar keys differ mostly in the low bits
+    final int mixed = hash * 0x9E3779B9;
+    return mixed ^ (mixed >>> 16);
+  }
+}
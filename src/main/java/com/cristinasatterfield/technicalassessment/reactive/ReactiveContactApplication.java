@@ -0,0 +1,31 @@
+package com.cristinasatterfield.technicalassessment.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+
+/**
+ * The non-blocking variant of the contact API, on WebFlux and R2DBC. It serves the
+ * same /api/v1/contact contract as the blocking application and shares its schema,
+ * which the blocking application migrates with Flyway.
+ *
+ * Run it with ./mvnw spring-boot:run -Dspring-boot.run.main-class=com.cristinasatterfield.technicalassessment.reactive.ReactiveContactApplication
+ *
+ * The blocking application scans this package too, so every bean in it only loads
+ * in a reactive web application.
+ */
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@SpringBootApplication(exclude = { DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class })
+public class ReactiveContactApplication {
+
+  public static void main(String[] args) {
+    final SpringApplication application = new SpringApplication(ReactiveContactApplication.class);
+    application.setWebApplicationType(WebApplicationType.REACTIVE);
+    application.run(args);
+  }
+
+}
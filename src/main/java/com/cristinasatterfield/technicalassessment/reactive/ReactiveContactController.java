@@ -0,0 +1,172 @@
+package com.cristinasatterfield.technicalassessment.reactive;
+
+import java.util.List;
+
+import javax.validation.Valid;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactController;
+import com.cristinasatterfield.technicalassessment.contact.ContactETags;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.UpdateContactDto;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive counterpart of ContactController, with the same paths, status codes,
+ * ETags and page cursor.
+ */
+@RestController
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@RequestMapping("/api/v1/contact")
+@Tag(name = "Contact API", description = "CRUD API endpoints for managing contacts.")
+public class ReactiveContactController {
+  private final ReactiveContactRepository contactRepository;
+
+  public ReactiveContactController(ReactiveContactRepository contactRepository) {
+    this.contactRepository = contactRepository;
+  }
+
+  /**
+   * GET method to fetch a page of contacts or contacts that match the optional name parameter.
+   * When the client accepts NDJSON, every contact after the cursor is streamed instead of
+   * one page, and rows are read from the database only as fast as the client consumes them.
+   *
+   * @param name A string used to search for a contact by name (optional)
+   * @param after The cursor returned with the previous page (optional)
+   * @param limit The maximum number of contacts to return (optional, ignored when streaming)
+   * @returns A array of contacts that match the parameter or an empty array
+   */
+  @GetMapping
+  @Operation(
+    summary = "Fetch contacts",
+    description = "Fetch a page of contacts ordered by id if no name is provided. If a name is provided, fetch the best matching contacts up to the limit. "
+      + "With Accept: application/x-ndjson, stream every contact after the cursor instead of one page."
+  )
+  public Mono<ResponseEntity<Flux<Contact>>> getAllContacts(
+    @RequestParam(required = false) String name,
+    @RequestParam(required = false) Long after,
+    @RequestParam(defaultValue = "" + ContactController.DEFAULT_PAGE_SIZE) int limit,
+    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+  ) {
+    final int pageSize = Math.max(1, Math.min(limit, ContactController.MAX_PAGE_SIZE));
+    final Long cursor = after == null ? Long.MIN_VALUE : after;
+
+    if (name != null) {
+      return Mono.just(ResponseEntity.ok().body(this.contactRepository.searchByName(name, pageSize)));
+    }
+
+    if (accept != null && MediaType.parseMediaTypes(accept).contains(MediaType.APPLICATION_NDJSON)) {
+      return Mono.just(ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(this.contactRepository.streamAfter(cursor)));
+    }
+
+    return this.contactRepository.findPage(cursor, pageSize)
+      .collectList()
+      .map(contacts -> {
+        if (contacts.size() < pageSize) {
+          return ResponseEntity.ok(Flux.fromIterable(contacts));
+        }
+        final Long nextCursor = contacts.get(contacts.size() - 1).getId();
+        return ResponseEntity.ok()
+          .header(ContactController.NEXT_CURSOR_HEADER, nextCursor.toString())
+          .body(Flux.fromIterable(contacts));
+      });
+  }
+
+  /**
+   * GET method to fetch contact by contactId
+   *
+   * @param contactId The id of the contact to fetch
+   * @returns The requested contact, 304 NOT MODIFIED or 404 NOT FOUND
+   */
+  @GetMapping("/{contactId}")
+  @Operation(summary = "Fetch a contact by Id")
+  public Mono<ResponseEntity<Contact>> getContactById(@PathVariable Long contactId) {
+    return this.contactRepository.findById(contactId)
+      .map(contact -> ResponseEntity.ok().eTag(ContactETags.of(contact)).body(contact))
+      .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+  }
+
+  /**
+   * POST method to create a contact
+   *
+   * @param contact The details of the contact to create
+   * @returns The created contact or 400 if bad request
+   */
+  @PostMapping
+  @Operation(summary = "Create a new contact")
+  public Mono<Contact> createContact(@Valid @RequestBody CreateContactDto contact) {
+    return this.contactRepository.insert(contact.getName());
+  }
+
+  /**
+   * PUT method to update a contacts's details
+   *
+   * @param contactId The id of the contact to update
+   * @param contactDto The contact fields to update
+   * @param ifMatch The ETags the contact must match to be updated (optional)
+   * @returns The updated contact, 404 NOT FOUND or 412 PRECONDITION FAILED
+   */
+  @PutMapping("/{contactId}")
+  @Operation(summary = "Update a contact by id")
+  public Mono<ResponseEntity<Contact>> updateContact(
+    @PathVariable Long contactId,
+    @Valid @RequestBody UpdateContactDto contactDto,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) {
+    final List<Long> expectedVersions = ContactETags.parseIfMatch(ifMatch);
+    return this.contactRepository.update(contactId, contactDto.getName(), expectedVersions)
+      .map(contact -> ResponseEntity.ok().eTag(ContactETags.of(contact)).body(contact))
+      .switchIfEmpty(preconditionFailedOrNotFound(contactId, expectedVersions).map(status -> new ResponseEntity<Contact>(status)));
+  }
+
+  /**
+   * DELETE method to delete a contact
+   *
+   * @param contactId The id of the contact to delete
+   * @param ifMatch The ETags the contact must match to be deleted (optional)
+   */
+  @DeleteMapping("/{contactId}")
+  @Operation(summary = "Delete a contact by id")
+  public Mono<ResponseEntity<Void>> deleteContact(
+    @PathVariable Long contactId,
+    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+  ) {
+    final List<Long> expectedVersions = ContactETags.parseIfMatch(ifMatch);
+    return this.contactRepository.delete(contactId, expectedVersions)
+      .flatMap(deleted -> deleted
+        ? Mono.just(HttpStatus.NO_CONTENT)
+        : preconditionFailedOrNotFound(contactId, expectedVersions))
+      .map(status -> new ResponseEntity<Void>(status));
+  }
+
+  private Mono<HttpStatus> preconditionFailedOrNotFound(Long contactId, List<Long> expectedVersions) {
+    if (expectedVersions == null) {
+      return Mono.just(HttpStatus.NOT_FOUND);
+    }
+    return this.contactRepository.existsById(contactId)
+      .map(exists -> exists ? HttpStatus.PRECONDITION_FAILED : HttpStatus.NOT_FOUND);
+  }
+}
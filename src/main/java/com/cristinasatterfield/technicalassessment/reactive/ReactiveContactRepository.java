@@ -0,0 +1,133 @@
+package com.cristinasatterfield.technicalassessment.reactive;
+
+import java.util.List;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactRepository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The contact table over R2DBC. The SQL mirrors what the blocking ContactService
+ * runs, so both stacks hit the same indexes.
+ */
+@Repository
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveContactRepository {
+  /**
+   * Rows requested from Postgres per round trip while streaming. Demand from the
+   * subscriber drives the next fetch, which is what gives the stream backpressure.
+   */
+  private static final int STREAM_FETCH_SIZE = 250;
+
+  private final DatabaseClient databaseClient;
+
+  public ReactiveContactRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  public Mono<Contact> findById(Long contactId) {
+    return databaseClient.sql("SELECT id, name, version FROM contact WHERE id = :id")
+      .bind("id", contactId)
+      .map(ReactiveContactRepository::toContact)
+      .one();
+  }
+
+  public Mono<Boolean> existsById(Long contactId) {
+    return databaseClient.sql("SELECT 1 FROM contact WHERE id = :id")
+      .bind("id", contactId)
+      .map(row -> true)
+      .one()
+      .defaultIfEmpty(false);
+  }
+
+  public Flux<Contact> findPage(Long after, int limit) {
+    return databaseClient.sql("SELECT id, name, version FROM contact WHERE id > :after ORDER BY id LIMIT :limit")
+      .bind("after", after)
+      .bind("limit", limit)
+      .map(ReactiveContactRepository::toContact)
+      .all();
+  }
+
+  /**
+   * Stream every contact after the cursor, fetching rows only as the subscriber asks for them
+   */
+  public Flux<Contact> streamAfter(Long after) {
+    return databaseClient.sql("SELECT id, name, version FROM contact WHERE id > :after ORDER BY id")
+      .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+      .bind("after", after)
+      .map(ReactiveContactRepository::toContact)
+      .all();
+  }
+
+  public Flux<Contact> searchByName(String name, int limit) {
+    return databaseClient.sql("SELECT id, name, version FROM contact WHERE lower(name) LIKE lower(:pattern) "
+        + "ORDER BY similarity(lower(name), lower(:name)) DESC, id LIMIT :limit")
+      .bind("pattern", ContactRepository.containsPattern(name))
+      .bind("name", name)
+      .bind("limit", limit)
+      .map(ReactiveContactRepository::toContact)
+      .all();
+  }
+
+  public Mono<Contact> insert(String name) {
+    return databaseClient.sql("INSERT INTO contact (name) VALUES (:name) RETURNING id, name, version")
+      .bind("name", name)
+      .map(ReactiveContactRepository::toContact)
+      .one();
+  }
+
+  /**
+   * @param expectedVersions The versions the contact must be at, or null to update any version
+   */
+  public Mono<Contact> update(Long contactId, String name, List<Long> expectedVersions) {
+    if (expectedVersions == null) {
+      return databaseClient.sql("UPDATE contact SET name = :name, version = version + 1 WHERE id = :id RETURNING id, name, version")
+        .bind("name", name)
+        .bind("id", contactId)
+        .map(ReactiveContactRepository::toContact)
+        .one();
+    }
+    return databaseClient.sql("UPDATE contact SET name = :name, version = version + 1 WHERE id = :id AND version = ANY(:versions) RETURNING id, name, version")
+      .bind("name", name)
+      .bind("id", contactId)
+      .bind("versions", expectedVersions.toArray(new Long[0]))
+      .map(ReactiveContactRepository::toContact)
+      .one();
+  }
+
+  /**
+   * @param expectedVersions The versions the contact must be at, or null to delete any version
+   * @returns Whether a contact was deleted
+   */
+  public Mono<Boolean> delete(Long contactId, List<Long> expectedVersions) {
+    if (expectedVersions == null) {
+      return databaseClient.sql("DELETE FROM contact WHERE id = :id")
+        .bind("id", contactId)
+        .fetch()
+        .rowsUpdated()
+        .map(deleted -> deleted > 0);
+    }
+    return databaseClient.sql("DELETE FROM contact WHERE id = :id AND version = ANY(:versions)")
+      .bind("id", contactId)
+      .bind("versions", expectedVersions.toArray(new Long[0]))
+      .fetch()
+      .rowsUpdated()
+      .map(deleted -> deleted > 0);
+  }
+
+  private static Contact toContact(Row row) {
+    final Contact contact = new Contact();
+    contact.setId(row.get("id", Number.class).longValue());
+    contact.setName(row.get("name", String.class));
+    contact.setVersion(row.get("version", Long.class));
+    return contact;
+  }
+}
@@ -0,0 +1,47 @@
+package com.cristinasatterfield.technicalassessment.startup;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Marks the springdoc beans lazy so building the OpenAPI model, its scanners and
+ * the Swagger UI resources is deferred until the docs are first requested. The
+ * rest of the context stays eager: the rate limiter, the change feed poller and
+ * the suggest index loader have to be running before the first request arrives.
+ *
+ * Enabled by app.startup.lazy-docs, which the prod profile sets.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.startup.lazy-docs", havingValue = "true")
+public class LazyDocsConfig {
+  private static final String DOCS_PACKAGE = "org.springdoc.";
+
+  @Bean
+  public static BeanFactoryPostProcessor lazyDocsBeanFactoryPostProcessor() {
+    return beanFactory -> {
+      for (String beanName : beanFactory.getBeanDefinitionNames()) {
+        BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+        if (isDocsBean(beanFactory, definition)) {
+          definition.setLazyInit(true);
+        }
+      }
+    };
+  }
+
+  /**
+   * Most springdoc beans are @Bean methods, whose definitions carry no class name,
+   * so fall back to the configuration class declaring them
+   */
+  private static boolean isDocsBean(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+    String className = definition.getBeanClassName();
+    String factoryBeanName = definition.getFactoryBeanName();
+    if (className == null && factoryBeanName != null && beanFactory.containsBeanDefinition(factoryBeanName)) {
+      className = beanFactory.getBeanDefinition(factoryBeanName).getBeanClassName();
+    }
+    return className != null && className.startsWith(DOCS_PACKAGE);
+  }
+}
@@ -0,0 +1,53 @@
+package com.cristinasatterfield.technicalassessment.startup;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports how long the JVM took to become ready to serve, measured from JVM start
+ * so class loading and the CDS archive are included.
+ *
+ * With app.startup.exit-on-ready the application exits as soon as it is ready. The
+ * AppCDS training run uses this, as does the startup Maven profile, which fails the
+ * build when startup took longer than app.startup.max-time.
+ */
+@Component
+public class StartupTimer implements ApplicationListener<ApplicationReadyEvent> {
+  private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+
+  private final boolean exitOnReady;
+
+  private final Duration maxTime;
+
+  public StartupTimer(
+    @Value("${app.startup.exit-on-ready:false}") boolean exitOnReady,
+    @Value("${app.startup.max-time:0s}") Duration maxTime
+  ) {
+    this.exitOnReady = exitOnReady;
+    this.maxTime = maxTime;
+  }
+
+  @Override
+  public void onApplicationEvent(ApplicationReadyEvent event) {
+    Duration startupTime = Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime());
+    boolean overBudget = !maxTime.isZero() && startupTime.compareTo(maxTime) > 0;
+    if (overBudget) {
+      logger.error("Ready {} ms after JVM start, over the {} ms budget", startupTime.toMillis(), maxTime.toMillis());
+    } else {
+      logger.info("Ready {} ms after JVM start", startupTime.toMillis());
+    }
+
+    if (exitOnReady) {
+      int exitCode = SpringApplication.exit(event.getApplicationContext(), () -> overBudget ? 1 : 0);
+      System.exit(exitCode);
+    }
+  }
+}
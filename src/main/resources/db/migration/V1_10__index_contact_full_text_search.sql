@@ -0,0 +1,107 @@
+-- Index the full text search columns added by V1_8 without blocking writes.
+-- CREATE INDEX CONCURRENTLY can't run on a partitioned table or in a transaction, see
+-- the .conf file next to this script. So the parent index is created on the parent
+-- alone, where it starts out invalid, each partition's index is built concurrently
+-- and attached, and the parent index becomes valid once every partition has one.
+--
+-- If a build fails it leaves an invalid index behind: drop it before running this
+-- again, as IF NOT EXISTS would otherwise skip and attach it.
+CREATE INDEX IF NOT EXISTS contact_name_tsv_idx ON ONLY contact USING GIN (name_tsv);
+CREATE INDEX IF NOT EXISTS contact_search_key_trgm_idx ON ONLY contact
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p00_name_tsv_idx ON contact_p00 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p00_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p00_search_key_trgm_idx ON contact_p00
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p00_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p01_name_tsv_idx ON contact_p01 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p01_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p01_search_key_trgm_idx ON contact_p01
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p01_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p02_name_tsv_idx ON contact_p02 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p02_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p02_search_key_trgm_idx ON contact_p02
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p02_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p03_name_tsv_idx ON contact_p03 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p03_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p03_search_key_trgm_idx ON contact_p03
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p03_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p04_name_tsv_idx ON contact_p04 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p04_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p04_search_key_trgm_idx ON contact_p04
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p04_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p05_name_tsv_idx ON contact_p05 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p05_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p05_search_key_trgm_idx ON contact_p05
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p05_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p06_name_tsv_idx ON contact_p06 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p06_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p06_search_key_trgm_idx ON contact_p06
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p06_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p07_name_tsv_idx ON contact_p07 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p07_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p07_search_key_trgm_idx ON contact_p07
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p07_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p08_name_tsv_idx ON contact_p08 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p08_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p08_search_key_trgm_idx ON contact_p08
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p08_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p09_name_tsv_idx ON contact_p09 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p09_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p09_search_key_trgm_idx ON contact_p09
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p09_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p10_name_tsv_idx ON contact_p10 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p10_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p10_search_key_trgm_idx ON contact_p10
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p10_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p11_name_tsv_idx ON contact_p11 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p11_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p11_search_key_trgm_idx ON contact_p11
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p11_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p12_name_tsv_idx ON contact_p12 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p12_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p12_search_key_trgm_idx ON contact_p12
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p12_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p13_name_tsv_idx ON contact_p13 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p13_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p13_search_key_trgm_idx ON contact_p13
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p13_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p14_name_tsv_idx ON contact_p14 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p14_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p14_search_key_trgm_idx ON contact_p14
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p14_search_key_trgm_idx;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p15_name_tsv_idx ON contact_p15 USING GIN (name_tsv);
+ALTER INDEX contact_name_tsv_idx ATTACH PARTITION contact_p15_name_tsv_idx;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS contact_p15_search_key_trgm_idx ON contact_p15
+    USING GIN (contact_search_key(name) gin_trgm_ops);
+ALTER INDEX contact_search_key_trgm_idx ATTACH PARTITION contact_p15_search_key_trgm_idx;
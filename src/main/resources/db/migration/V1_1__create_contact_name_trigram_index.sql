@@ -0,0 +1,3 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX contact_name_trgm_idx ON contact USING GIN (lower(name) gin_trgm_ops);
@@ -0,0 +1,5 @@
+-- Hibernate hands out ids in blocks of 50 from this sequence so inserts can be batched.
+-- Move it past any ids already assigned before reusing it.
+ALTER SEQUENCE contact_id_seq INCREMENT BY 50;
+
+SELECT setval('contact_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM contact));
@@ -0,0 +1,40 @@
+-- Step 1 of moving contact to a hash partitioned table with a primary key.
+-- The new table is filled in the background by V1_5 and swapped in by V1_6.
+CREATE TABLE contact_partitioned (
+    id BIGINT NOT NULL DEFAULT nextval('contact_id_seq'),
+    name TEXT NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+) PARTITION BY HASH (id);
+
+DO $$
+BEGIN
+    FOR remainder IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE contact_p%s PARTITION OF contact_partitioned FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+            lpad(remainder::text, 2, '0'), remainder
+        );
+    END LOOP;
+END $$;
+
+CREATE INDEX contact_partitioned_name_trgm_idx ON contact_partitioned USING GIN (lower(name) gin_trgm_ops);
+
+-- Mirror every write on the old table while the backfill runs. Creating the trigger
+-- waits for in-flight writes, so every row written after this point is mirrored and
+-- every row written before it is picked up by the backfill.
+CREATE FUNCTION contact_mirror_to_partitioned() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM contact_partitioned WHERE id = OLD.id;
+        RETURN OLD;
+    END IF;
+
+    INSERT INTO contact_partitioned (id, name, version) VALUES (NEW.id, NEW.name, NEW.version)
+    ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, version = EXCLUDED.version;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER contact_mirror_to_partitioned
+    AFTER INSERT OR UPDATE OR DELETE ON contact
+    FOR EACH ROW EXECUTE FUNCTION contact_mirror_to_partitioned();
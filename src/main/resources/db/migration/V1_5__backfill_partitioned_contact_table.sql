@@ -0,0 +1,26 @@
+-- Step 2: copy existing rows in batches of 10000 ids, committing after each batch so
+-- no lock or snapshot is held for longer than one batch. Runs outside a transaction,
+-- see the .conf file next to this script.
+--
+-- FOR SHARE makes a batch wait for concurrent updates and deletes of its rows and
+-- re-read them, so a row deleted mid-batch is not copied back. Rows already mirrored
+-- by the trigger are newer than the copy and are left alone.
+DO $$
+DECLARE
+    batch_size CONSTANT BIGINT := 10000;
+    batch_start BIGINT;
+    max_id BIGINT;
+BEGIN
+    SELECT COALESCE(MIN(id), 0) - 1, COALESCE(MAX(id), 0) INTO batch_start, max_id FROM contact;
+
+    WHILE batch_start < max_id LOOP
+        INSERT INTO contact_partitioned (id, name, version)
+        SELECT id, name, version FROM contact
+        WHERE id > batch_start AND id <= batch_start + batch_size
+        FOR SHARE
+        ON CONFLICT (id) DO NOTHING;
+
+        batch_start := batch_start + batch_size;
+        COMMIT;
+    END LOOP;
+END $$;
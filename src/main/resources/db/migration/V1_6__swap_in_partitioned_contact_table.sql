@@ -0,0 +1,15 @@
+-- Step 3: swap the tables. The backfill is complete and the trigger has kept the copy
+-- current, so this only takes the lock for a few catalog updates.
+LOCK TABLE contact IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE contact RENAME TO contact_unpartitioned;
+ALTER TABLE contact_partitioned RENAME TO contact;
+
+-- Keep the id sequence when the old table is dropped
+ALTER SEQUENCE contact_id_seq OWNED BY contact.id;
+
+DROP TABLE contact_unpartitioned;
+DROP FUNCTION contact_mirror_to_partitioned();
+
+ALTER INDEX contact_partitioned_name_trgm_idx RENAME TO contact_name_trgm_idx;
+ALTER INDEX contact_partitioned_pkey RENAME TO contact_pkey;
@@ -0,0 +1,32 @@
+-- Append-only log of contact writes, read by GET /api/v1/contact/changes.
+-- xid is the writing transaction, which lets readers skip past transactions that are
+-- still in flight without missing their rows once they commit.
+CREATE TABLE contact_change (
+    change_id BIGSERIAL PRIMARY KEY,
+    xid BIGINT NOT NULL DEFAULT txid_current(),
+    operation TEXT NOT NULL,
+    contact_id BIGINT NOT NULL,
+    name TEXT,
+    version BIGINT,
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX contact_change_xid_idx ON contact_change (xid, change_id);
+CREATE INDEX contact_change_changed_at_idx ON contact_change (changed_at);
+
+-- A trigger rather than the service, so batch, ingest and direct SQL writes are all logged
+CREATE FUNCTION contact_log_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO contact_change (operation, contact_id) VALUES (TG_OP, OLD.id);
+        RETURN OLD;
+    END IF;
+
+    INSERT INTO contact_change (operation, contact_id, name, version) VALUES (TG_OP, NEW.id, NEW.name, NEW.version);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER contact_log_change
+    AFTER INSERT OR UPDATE OR DELETE ON contact
+    FOR EACH ROW EXECUTE FUNCTION contact_log_change();
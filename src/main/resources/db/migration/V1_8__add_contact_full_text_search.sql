@@ -0,0 +1,25 @@
+-- Ranked name search for GET /api/v1/contact/search: whole and prefix word matches
+-- through a tsvector, and misspelled words through trigrams, both ignoring accents.
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() is only STABLE because its dictionary could be swapped, so generated
+-- columns and index expressions can't call it. Naming the dictionary pins the result.
+CREATE FUNCTION contact_unaccent(text) RETURNS text AS $$
+    SELECT public.unaccent('public.unaccent'::regdictionary, $1)
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT;
+
+-- The text both the trigram index and fuzzy queries compare
+CREATE FUNCTION contact_search_key(text) RETURNS text AS $$
+    SELECT lower(contact_unaccent($1))
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT;
+
+-- The simple configuration lowercases without stemming, which suits names.
+--
+-- Adding a stored generated column rewrites every partition, and it can only be added
+-- through the partitioned table, so contact is locked ACCESS EXCLUSIVE for the whole
+-- rewrite: reads and writes wait for about as long as copying the table and
+-- rebuilding its indexes, and the rewrite needs that much free disk again. Run it in a
+-- maintenance window on a large table. The indexes are built by V1_10 without
+-- blocking writes.
+ALTER TABLE contact ADD COLUMN name_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', contact_unaccent(name))) STORED;
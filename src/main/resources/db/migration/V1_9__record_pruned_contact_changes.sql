@@ -0,0 +1,9 @@
+-- The newest change removed from contact_change by pruning. A reader whose token is
+-- older than it has missed changes, and has to resync from a full export.
+CREATE TABLE contact_change_pruned (
+    id BOOLEAN PRIMARY KEY DEFAULT true CHECK (id),
+    xid BIGINT NOT NULL,
+    change_id BIGINT NOT NULL
+);
+
+INSERT INTO contact_change_pruned (xid, change_id) VALUES (0, 0);
@@ -0,0 +1,31 @@
+package com.cristinasatterfield.technicalassessment;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class MetricsTest {
+  @Autowired
+  private TestRestTemplate template;
+
+  @Test
+  public void testPrometheusEndpoint() {
+    template.getForEntity("/api/v1/contact/1000000000", String.class);
+
+    final ResponseEntity<String> response = template.getForEntity("/actuator/prometheus", String.class);
+
+    Assertions.assertThat(response.getStatusCodeValue()).isEqualTo(200);
+    Assertions.assertThat(response.getBody())
+      .contains("http_server_requests_seconds_bucket")
+      .contains("contact_service_seconds_bucket")
+      .contains("hikaricp_connections_active")
+      .contains("cache_gets_total{cache=\"contact\"")
+      // The lookup ran at least one JdbcTemplate statement
+      .containsPattern("http_server_requests_queries_sum\\{method=\"GET\",uri=\"/api/v1/contact/\\{contactId\\}\",\\} [1-9]");
+  }
+}
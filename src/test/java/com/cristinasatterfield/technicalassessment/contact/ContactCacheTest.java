@@ -0,0 +1,84 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ContactCacheTest {
+  @Test
+  public void testReadThrough() {
+    final ContactCache cache = new ContactCache(true, 10, Duration.ofMinutes(1));
+    final AtomicInteger loads = new AtomicInteger();
+
+    cache.get(1L, () -> load(loads, 1L, "A Smith"));
+    final Optional<Contact> contact = cache.get(1L, () -> load(loads, 1L, "A Smith"));
+
+    Assertions.assertThat(contact.get().getName()).isEqualTo("A Smith");
+    Assertions.assertThat(loads.get()).isEqualTo(1);
+    Assertions.assertThat(cache.stats().hitCount()).isEqualTo(1);
+    Assertions.assertThat(cache.stats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testReturnsCopies() {
+    final ContactCache cache = new ContactCache(true, 10, Duration.ofMinutes(1));
+    final AtomicInteger loads = new AtomicInteger();
+
+    cache.get(1L, () -> load(loads, 1L, "A Smith")).get().setName("B Smith");
+
+    Assertions.assertThat(cache.get(1L, Optional::empty).get().getName()).isEqualTo("A Smith");
+  }
+
+  @Test
+  public void testLoadDoesNotOverwriteNewerWrite() {
+    final ContactCache cache = new ContactCache(true, 10, Duration.ofMinutes(1));
+
+    // The load read version 0, then a write committed and cached version 1 before it returned
+    cache.get(1L, () -> {
+      cache.put(contact(1L, "B Smith", 1L));
+      return Optional.of(contact(1L, "A Smith", 0L));
+    });
+
+    Assertions.assertThat(cache.get(1L, Optional::empty).get().getName()).isEqualTo("B Smith");
+    cache.put(contact(1L, "C Smith", 2L));
+    Assertions.assertThat(cache.get(1L, Optional::empty).get().getName()).isEqualTo("C Smith");
+  }
+
+  @Test
+  public void testInvalidate() {
+    final ContactCache cache = new ContactCache(true, 10, Duration.ofMinutes(1));
+    final AtomicInteger loads = new AtomicInteger();
+
+    cache.get(1L, () -> load(loads, 1L, "A Smith"));
+    cache.invalidate(1L);
+
+    Assertions.assertThat(cache.get(1L, Optional::empty)).isEmpty();
+  }
+
+  @Test
+  public void testDisabled() {
+    final ContactCache cache = new ContactCache(false, 10, Duration.ofMinutes(1));
+    final AtomicInteger loads = new AtomicInteger();
+
+    cache.get(1L, () -> load(loads, 1L, "A Smith"));
+    cache.get(1L, () -> load(loads, 1L, "A Smith"));
+
+    Assertions.assertThat(loads.get()).isEqualTo(2);
+  }
+
+  private Optional<Contact> load(AtomicInteger loads, Long id, String name) {
+    loads.incrementAndGet();
+    return Optional.of(contact(id, name, 0L));
+  }
+
+  private static Contact contact(Long id, String name, Long version) {
+    final Contact contact = new Contact();
+    contact.setId(id);
+    contact.setName(name);
+    contact.setVersion(version);
+    return contact;
+  }
+}
@@ -4,6 +4,9 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import com.cristinasatterfield.technicalassessment.contact.dto.BatchUpdateContactDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactBatchResultDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSuggestionDto;
 import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
 import com.cristinasatterfield.technicalassessment.contact.dto.UpdateContactDto;
 
@@ -17,8 +20,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 
@@ -88,7 +93,7 @@ public class ContactControllerTest {
   @Test
   @Order(5)
   public void testCreateContactBadRequest() {
-    final List<String> names = Arrays.asList(null, "", " ");
+    final List<String> names = Arrays.asList(null, "", " ", "a\u0000b");
 
     for (String name : names) {
       final CreateContactDto dto =  new CreateContactDto(name);
@@ -115,7 +120,7 @@ public class ContactControllerTest {
   public void testUpdateContactBadRequest() {
     final Long originalContactId = createContact("H Doe").getId();
 
-    final List<String> names = Arrays.asList(null, "", " ");
+    final List<String> names = Arrays.asList(null, "", " ", "a\u0000b");
 
     for (String name : names) {
       final UpdateContactDto dto = new UpdateContactDto(name);
@@ -167,6 +172,171 @@ public class ContactControllerTest {
     Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
   }
 
+  @Test
+  @Order(11)
+  public void testGetContactsPaged() {
+    final Long firstId = createContact("I Smith").getId();
+    createContact("J Smith");
+    createContact("K Smith");
+
+    final String firstUrl = "/api/v1/contact?limit=2&after=" + (firstId - 1);
+    final ResponseEntity<Contact[]> firstPage = template.getForEntity(firstUrl, Contact[].class);
+    final String cursor = firstPage.getHeaders().getFirst(ContactController.NEXT_CURSOR_HEADER);
+
+    Assertions.assertThat(firstPage.getBody()).extracting(Contact::getName).containsExactly("I Smith", "J Smith");
+    Assertions.assertThat(cursor).isNotNull();
+
+    final String secondUrl = "/api/v1/contact?limit=2&after=" + cursor;
+    final ResponseEntity<Contact[]> secondPage = template.getForEntity(secondUrl, Contact[].class);
+
+    Assertions.assertThat(secondPage.getBody()).extracting(Contact::getName).containsExactly("K Smith");
+    Assertions.assertThat(secondPage.getHeaders().getFirst(ContactController.NEXT_CURSOR_HEADER)).isNull();
+  }
+
+  @Test
+  @Order(12)
+  public void testExportContacts() {
+    final Contact contact = createContact("L Smith");
+    final ResponseEntity<Contact[]> response = template.getForEntity("/api/v1/contact/export", Contact[].class);
+
+    Assertions.assertThat(response.getStatusCodeValue()).isEqualTo(200);
+    Assertions.assertThat(response.getBody()).extracting(Contact::getId).contains(contact.getId());
+  }
+
+  @Test
+  @Order(13)
+  public void testBatchContacts() {
+    final List<CreateContactDto> createDtos = Arrays.asList(new CreateContactDto("M Smith"), new CreateContactDto(" "));
+    final ResponseEntity<ContactBatchResultDto[]> created = template.postForEntity("/api/v1/contact/batch", createDtos, ContactBatchResultDto[].class);
+
+    Assertions.assertThat(created.getBody()).extracting(ContactBatchResultDto::getStatus).containsExactly(200, 400);
+    final Long contactId = created.getBody()[0].getId();
+
+    final List<BatchUpdateContactDto> updateDtos = Arrays.asList(new BatchUpdateContactDto(contactId, "N Smith"), new BatchUpdateContactDto(1000000000L, "N Smith"));
+    final ResponseEntity<ContactBatchResultDto[]> updated = template.exchange("/api/v1/contact/batch", HttpMethod.PUT, new HttpEntity<>(updateDtos), ContactBatchResultDto[].class);
+
+    Assertions.assertThat(updated.getBody()).extracting(ContactBatchResultDto::getStatus).containsExactly(200, 404);
+    Assertions.assertThat(template.getForEntity("/api/v1/contact/" + contactId, Contact.class).getBody().getName()).isEqualTo("N Smith");
+
+    final List<Long> deleteIds = Arrays.asList(contactId, 1000000000L);
+    final ResponseEntity<ContactBatchResultDto[]> deleted = template.exchange("/api/v1/contact/batch", HttpMethod.DELETE, new HttpEntity<>(deleteIds), ContactBatchResultDto[].class);
+
+    Assertions.assertThat(deleted.getBody()).extracting(ContactBatchResultDto::getStatus).containsExactly(204, 404);
+    Assertions.assertThat(template.getForEntity("/api/v1/contact/" + contactId, Contact.class).getStatusCodeValue()).isEqualTo(404);
+  }
+
+  @Test
+  @Order(14)
+  public void testGetContactNotModified() {
+    final Long contactId = createContact("O Smith").getId();
+    final String url = "/api/v1/contact/" + contactId;
+    final String eTag = template.getForEntity(url, Contact.class).getHeaders().getETag();
+
+    final HttpHeaders headers = new HttpHeaders();
+    headers.setIfNoneMatch(eTag);
+    final ResponseEntity<Contact> response = template.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), Contact.class);
+
+    Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    Assertions.assertThat(response.getBody()).isNull();
+  }
+
+  @Test
+  @Order(15)
+  public void testUpdateContactPreconditionFailed() {
+    final Long contactId = createContact("P Doe").getId();
+    final String url = "/api/v1/contact/" + contactId;
+    final String eTag = template.getForEntity(url, Contact.class).getHeaders().getETag();
+
+    final HttpHeaders headers = new HttpHeaders();
+    headers.setIfMatch(eTag);
+    final HttpEntity<UpdateContactDto> request = new HttpEntity<>(new UpdateContactDto("P Smith"), headers);
+    final ResponseEntity<Contact> first = template.exchange(url, HttpMethod.PUT, request, Contact.class);
+    final ResponseEntity<Contact> second = template.exchange(url, HttpMethod.PUT, request, Contact.class);
+
+    Assertions.assertThat(first.getStatusCodeValue()).isEqualTo(200);
+    Assertions.assertThat(first.getHeaders().getETag()).isNotEqualTo(eTag);
+    Assertions.assertThat(second.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+    final ResponseEntity<Void> deleted = template.exchange(url, HttpMethod.DELETE, new HttpEntity<>(headers), Void.class);
+
+    Assertions.assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+  }
+
+  @Test
+  @Order(16)
+  public void testGetContactsBinary() {
+    createContact("Q Smith");
+    final List<String> names = Arrays.stream(template.getForObject("/api/v1/contact?limit=1000", Contact[].class))
+      .map(Contact::getName)
+      .collect(Collectors.toList());
+
+    for (MediaType format : Arrays.asList(MediaType.APPLICATION_CBOR, ContactFormats.SMILE)) {
+      final HttpHeaders headers = new HttpHeaders();
+      headers.setAccept(Arrays.asList(format));
+
+      for (String url : Arrays.asList("/api/v1/contact?limit=1000", "/api/v1/contact/export")) {
+        final ResponseEntity<Contact[]> response = template.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), Contact[].class);
+
+        Assertions.assertThat(response.getHeaders().getContentType().isCompatibleWith(format)).isTrue();
+        Assertions.assertThat(Arrays.stream(response.getBody()).map(Contact::getName).collect(Collectors.toList()))
+          .isEqualTo(names);
+      }
+    }
+  }
+
+  @Test
+  @Order(17)
+  public void testSuggestContacts() throws InterruptedException {
+    final Contact contact = createContact("R Suggestable");
+
+    ResponseEntity<ContactSuggestionDto[]> response = template.getForEntity("/api/v1/contact/suggest?prefix=sugg", ContactSuggestionDto[].class);
+    // The index loads in the background after startup
+    for (int i = 0; i < 50 && response.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE; i++) {
+      Thread.sleep(100);
+      response = template.getForEntity("/api/v1/contact/suggest?prefix=sugg", ContactSuggestionDto[].class);
+    }
+
+    Assertions.assertThat(response.getStatusCodeValue()).isEqualTo(200);
+    Assertions.assertThat(response.getBody()).hasSize(1);
+    Assertions.assertThat(response.getBody()[0].getId()).isEqualTo(contact.getId());
+
+    template.delete("/api/v1/contact/" + contact.getId());
+
+    Assertions.assertThat(template.getForObject("/api/v1/contact/suggest?prefix=sugg", ContactSuggestionDto[].class)).isEmpty();
+  }
+
+  @Test
+  @Order(18)
+  public void testSearchContactByNameMatchesWildcardsLiterally() {
+    createContact("Pct 100% Done");
+    createContact("Pct 1000 Done");
+    createContact("Under_Score");
+    createContact("UnderXScore");
+    createContact("Back\\Slash");
+    createContact("BackSlash");
+
+    Assertions.assertThat(searchNames("100%")).containsExactly("Pct 100% Done");
+    Assertions.assertThat(searchNames("r_S")).containsExactly("Under_Score");
+    Assertions.assertThat(searchNames("k\\S")).containsExactly("Back\\Slash");
+  }
+
+  @Test
+  @Order(19)
+  public void testSearchContactByNameRanksBySimilarity() {
+    createContact("Rankable Contact With A Long Name");
+    createContact("Rankable");
+    createContact("Rankable Contact");
+
+    Assertions.assertThat(searchNames("rankable"))
+      .containsExactly("Rankable", "Rankable Contact", "Rankable Contact With A Long Name");
+  }
+
+  private List<String> searchNames(String name) {
+    // Expanded as a variable, so the name is encoded rather than read as part of the URL
+    final ResponseEntity<Contact[]> response = template.getForEntity("/api/v1/contact?name={name}", Contact[].class, name);
+    return Arrays.stream(response.getBody()).map(Contact::getName).collect(Collectors.toList());
+  }
+
   private Contact createContact(String name) {
     final CreateContactDto dto =  new CreateContactDto(name);
     final ResponseEntity<Contact> response = template.postForEntity("/api/v1/contact", dto, Contact.class);
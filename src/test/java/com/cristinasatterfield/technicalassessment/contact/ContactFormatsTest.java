@@ -0,0 +1,45 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+public class ContactFormatsTest {
+  private final ContactFormats formats = new ContactFormats(Jackson2ObjectMapperBuilder.json().build(),
+    Jackson2ObjectMapperBuilder.json());
+
+  @Test
+  public void testPicksMostPreferredFormat() {
+    Assertions.assertThat(formats.negotiate(null)).isEqualTo(MediaType.APPLICATION_JSON);
+    Assertions.assertThat(formats.negotiate("application/json;q=0.5, application/cbor")).isEqualTo(MediaType.APPLICATION_CBOR);
+    Assertions.assertThat(formats.negotiate("text/csv")).isEqualTo(ContactFormats.CSV);
+    Assertions.assertThat(formats.negotiate("image/png")).isEqualTo(MediaType.APPLICATION_JSON);
+  }
+
+  @Test
+  public void testSkipsRefusedFormats() {
+    Assertions.assertThat(formats.negotiate("application/cbor;q=0, */*")).isEqualTo(MediaType.APPLICATION_JSON);
+    // A wildcard does not bring back a format refused by a more specific range
+    Assertions.assertThat(formats.negotiate("*/*;q=0.5, application/json;q=0")).isEqualTo(MediaType.APPLICATION_CBOR);
+  }
+
+  @Test
+  public void testBinaryWritersUseBuilderConfiguration() throws Exception {
+    final Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+      .serializationInclusion(JsonInclude.Include.NON_NULL);
+    final ContactFormats configured = new ContactFormats(builder.build(), builder);
+    final Contact contact = new Contact();
+    contact.setId(1L);
+
+    final byte[] cbor = configured.writerFor(MediaType.APPLICATION_CBOR).writeValueAsBytes(contact);
+
+    Assertions.assertThat(new CBORMapper().readTree(cbor).has("name")).isFalse();
+    Assertions.assertThat(new ObjectMapper().readTree(configured.writerFor(MediaType.APPLICATION_JSON)
+      .writeValueAsString(contact)).has("name")).isFalse();
+  }
+}
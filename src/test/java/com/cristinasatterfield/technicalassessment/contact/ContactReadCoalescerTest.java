@@ -0,0 +1,265 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.cristinasatterfield.technicalassessment.datasource.PrimaryReads;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ContactReadCoalescerTest {
+  /**
+   * Looked up first and held in its query, so the lookups after it are batched
+   */
+  private static final long BLOCKING_ID = 0;
+
+  private static final long MISSING_ID = 404;
+
+  private static final long FAILING_ID = 500;
+
+  private final StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  public void tearDown() {
+    jdbcTemplate.release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testLoneLookupDoesNotWait() {
+    final ContactReadCoalescer coalescer = coalescer(Duration.ofSeconds(10), 100);
+
+    Assertions.assertThat(coalescer.getById(1L)).map(Contact::getName).hasValue("Contact 1");
+    Assertions.assertThat(jdbcTemplate.queries).containsExactly(List.of(1L));
+    Assertions.assertThat(batchSizes().count()).isZero();
+  }
+
+  @Test
+  public void testLeaderWaitsOutWindowAndBatches() throws Exception {
+    final Duration window = Duration.ofMillis(300);
+    final ContactReadCoalescer coalescer = coalescer(window, 100);
+    final Future<Optional<Contact>> blocking = blockLookups(coalescer);
+
+    final long start = System.nanoTime();
+    final List<Future<Optional<Contact>>> results = lookUp(coalescer, false, 1L, 2L, 3L, MISSING_ID);
+    final List<Optional<Contact>> contacts = getAll(results);
+    final long elapsed = System.nanoTime() - start;
+
+    Assertions.assertThat(contacts).extracting(contact -> contact.map(Contact::getName).orElse(null))
+      .containsExactly("Contact 1", "Contact 2", "Contact 3", null);
+    Assertions.assertThat(elapsed).isGreaterThanOrEqualTo(window.toNanos());
+    Assertions.assertThat(batchedQueries()).singleElement().satisfies(ids ->
+      Assertions.assertThat(ids).containsExactlyInAnyOrder(1L, 2L, 3L, MISSING_ID));
+    Assertions.assertThat(batchSizes().count()).isEqualTo(1);
+    Assertions.assertThat(batchSizes().totalAmount()).isEqualTo(4);
+
+    jdbcTemplate.release.countDown();
+    Assertions.assertThat(blocking.get(5, TimeUnit.SECONDS)).isPresent();
+  }
+
+  @Test
+  public void testFullBatchRunsAtOnce() throws Exception {
+    final ContactReadCoalescer coalescer = coalescer(Duration.ofSeconds(30), 3);
+    blockLookups(coalescer);
+
+    final long start = System.nanoTime();
+    final List<Optional<Contact>> contacts = getAll(lookUp(coalescer, false, 1L, 2L, 3L, 4L, 5L, 6L));
+    final long elapsed = System.nanoTime() - start;
+
+    Assertions.assertThat(contacts).allMatch(Optional::isPresent);
+    // Neither leader waits out its window once another lookup fills its batch
+    Assertions.assertThat(elapsed).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    Assertions.assertThat(batchedQueries()).hasSize(2).allSatisfy(ids -> Assertions.assertThat(ids).hasSize(3));
+    Assertions.assertThat(batchSizes().max()).isEqualTo(3);
+  }
+
+  @Test
+  public void testBatchesPrimaryReadsSeparately() throws Exception {
+    final ContactReadCoalescer coalescer = coalescer(Duration.ofMillis(300), 100);
+    blockLookups(coalescer);
+
+    final List<Future<Optional<Contact>>> results = new ArrayList<>(lookUp(coalescer, true, 1L, 2L));
+    results.addAll(lookUp(coalescer, false, 3L, 4L));
+    getAll(results);
+
+    Assertions.assertThat(batchedQueries()).hasSize(2)
+      .anySatisfy(ids -> Assertions.assertThat(ids).containsExactlyInAnyOrder(1L, 2L))
+      .anySatisfy(ids -> Assertions.assertThat(ids).containsExactlyInAnyOrder(3L, 4L));
+  }
+
+  @Test
+  public void testFailsEveryLookupOfFailedBatch() throws Exception {
+    final ContactReadCoalescer coalescer = coalescer(Duration.ofMillis(300), 100);
+    blockLookups(coalescer);
+
+    final List<Future<Optional<Contact>>> results = lookUp(coalescer, false, 1L, FAILING_ID, 2L);
+
+    for (Future<Optional<Contact>> result : results) {
+      Assertions.assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(DataAccessResourceFailureException.class);
+    }
+    Assertions.assertThat(batchedQueries()).hasSize(1);
+    // Failures are not kept; a later lookup queries again
+    jdbcTemplate.release.countDown();
+    Assertions.assertThat(coalescer.getById(1L)).isPresent();
+  }
+
+  private ContactReadCoalescer coalescer(Duration window, int maxBatchSize) {
+    return new ContactReadCoalescer(jdbcTemplate, new StubTransactionManager(), window, maxBatchSize, registry);
+  }
+
+  /**
+   * Start a lookup that holds its query until released, so lookups after it are batched
+   */
+  private Future<Optional<Contact>> blockLookups(ContactReadCoalescer coalescer) throws InterruptedException {
+    final Future<Optional<Contact>> blocking = executor.submit(() -> coalescer.getById(BLOCKING_ID));
+    Assertions.assertThat(jdbcTemplate.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+    return blocking;
+  }
+
+  private List<Future<Optional<Contact>>> lookUp(ContactReadCoalescer coalescer, boolean primary, Long... ids) {
+    return Arrays.stream(ids).map(id -> executor.submit(() -> {
+      if (primary) {
+        PrimaryReads.force();
+      }
+      try {
+        return coalescer.getById(id);
+      } finally {
+        PrimaryReads.clear();
+      }
+    })).collect(Collectors.toList());
+  }
+
+  private static List<Optional<Contact>> getAll(List<Future<Optional<Contact>>> results) throws Exception {
+    final List<Optional<Contact>> contacts = new ArrayList<>();
+    for (Future<Optional<Contact>> result : results) {
+      contacts.add(result.get(20, TimeUnit.SECONDS));
+    }
+    return contacts;
+  }
+
+  private List<List<Long>> batchedQueries() {
+    return jdbcTemplate.queries.stream().filter(ids -> !ids.contains(BLOCKING_ID)).collect(Collectors.toList());
+  }
+
+  private DistributionSummary batchSizes() {
+    return registry.get("contact.reads.batch.size").summary();
+  }
+
+  /**
+   * Answers the lookup query with a contact for every id but MISSING_ID, and records
+   * the ids of each query
+   */
+  private static class StubJdbcTemplate extends JdbcTemplate {
+    private final List<List<Long>> queries = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> query(PreparedStatementCreator creator, RowMapper<T> rowMapper) {
+      final List<Long> ids = ids(creator);
+      queries.add(ids);
+      if (ids.contains(BLOCKING_ID)) {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (ids.contains(FAILING_ID)) {
+        throw new DataAccessResourceFailureException("connection lost");
+      }
+      return (List<T>) ids.stream().filter(id -> id != MISSING_ID).map(id -> {
+        final Contact contact = new Contact();
+        contact.setId(id);
+        contact.setName("Contact " + id);
+        contact.setVersion(0L);
+        return contact;
+      }).collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(PreparedStatementCreator creator) {
+      final List<Long> ids = new ArrayList<>();
+      final PreparedStatement statement = proxy(PreparedStatement.class, (name, args) -> null);
+      final Connection connection = proxy(Connection.class, (name, args) -> {
+        if ("createArrayOf".equals(name)) {
+          Arrays.stream((Object[]) args[1]).forEach(id -> ids.add((Long) id));
+        }
+        return "prepareStatement".equals(name) ? statement : null;
+      });
+      try {
+        creator.createPreparedStatement(connection);
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+      return ids;
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+      return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+        (proxy, method, args) -> handler.invoke(method.getName(), args)));
+    }
+
+    private interface Handler {
+      Object invoke(String name, Object[] args);
+    }
+  }
+
+  private static class StubTransactionManager extends AbstractPlatformTransactionManager {
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+public class ContactSchemaTest {
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  public void testContactIsHashPartitioned() {
+    final String strategy = jdbcTemplate.queryForObject(
+      "SELECT partstrat FROM pg_partitioned_table WHERE partrelid = 'contact'::regclass", String.class);
+    final Integer partitions = jdbcTemplate.queryForObject(
+      "SELECT count(*) FROM pg_inherits WHERE inhparent = 'contact'::regclass", Integer.class);
+
+    Assertions.assertThat(strategy).isEqualTo("h");
+    Assertions.assertThat(partitions).isEqualTo(16);
+  }
+
+  @Test
+  public void testIdLookupPrunesPartitions() {
+    final List<String> plan = jdbcTemplate.queryForList("EXPLAIN SELECT * FROM contact WHERE id = 42", String.class);
+
+    Assertions.assertThat(plan.stream().filter(line -> line.contains("contact_p")).count()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,76 @@
+package com.cristinasatterfield.technicalassessment.contact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SingleFlightTest {
+  @Test
+  public void testCoalescesConcurrentCalls() throws Exception {
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final SingleFlight<String, String> flight = new SingleFlight<>("lookup", registry);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger loads = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    final List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(() -> flight.execute("a", () -> {
+        loads.incrementAndGet();
+        await(release);
+        return "A Smith";
+      })));
+    }
+    // Let every caller join the first load before it finishes
+    while (registry.counter("contact.reads", "operation", "lookup", "outcome", "coalesced").count() < 7) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+
+    for (Future<String> result : results) {
+      Assertions.assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("A Smith");
+    }
+    Assertions.assertThat(loads.get()).isEqualTo(1);
+    Assertions.assertThat(registry.counter("contact.reads", "operation", "lookup", "outcome", "executed").count()).isEqualTo(1);
+    executor.shutdown();
+  }
+
+  @Test
+  public void testDoesNotKeepResults() {
+    final SingleFlight<String, Integer> flight = new SingleFlight<>("lookup", new SimpleMeterRegistry());
+    final AtomicInteger loads = new AtomicInteger();
+
+    flight.execute("a", loads::incrementAndGet);
+    final int second = flight.execute("a", loads::incrementAndGet);
+
+    Assertions.assertThat(second).isEqualTo(2);
+  }
+
+  @Test
+  public void testSharesFailures() {
+    final SingleFlight<String, Integer> flight = new SingleFlight<>("lookup", new SimpleMeterRegistry());
+
+    Assertions.assertThatThrownBy(() -> flight.execute("a", () -> {
+      throw new IllegalStateException("boom");
+    })).isInstanceOf(IllegalStateException.class);
+    Assertions.assertThat(flight.execute("a", () -> 1)).isEqualTo(1);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.cristinasatterfield.technicalassessment.contact.bulk;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BoundedLineReaderTest {
+  @Test
+  public void testReadsEveryLineTerminator() throws IOException {
+    final BoundedLineReader reader = new BoundedLineReader(new StringReader("a\nb\r\nc\rd"), 10);
+
+    Assertions.assertThat(reader.readLine()).isEqualTo("a");
+    Assertions.assertThat(reader.readLine()).isEqualTo("b");
+    Assertions.assertThat(reader.readLine()).isEqualTo("c");
+    Assertions.assertThat(reader.readLine()).isEqualTo("d");
+    Assertions.assertThat(reader.readLine()).isNull();
+  }
+
+  @Test
+  public void testReadsEmptyLines() throws IOException {
+    final BoundedLineReader reader = new BoundedLineReader(new StringReader("\n\r\n"), 10);
+
+    Assertions.assertThat(reader.readLine()).isEmpty();
+    Assertions.assertThat(reader.readLine()).isEmpty();
+    Assertions.assertThat(reader.readLine()).isNull();
+  }
+
+  @Test
+  public void testCutsLongLines() throws IOException {
+    final BoundedLineReader reader = new BoundedLineReader(new StringReader("x".repeat(20000) + "\nshort\n"), 4);
+
+    Assertions.assertThat(reader.readLine()).isEqualTo("xxxx");
+    Assertions.assertThat(reader.isTooLong()).isTrue();
+    Assertions.assertThat(reader.readLine()).isEqualTo("shor");
+    Assertions.assertThat(reader.isTooLong()).isTrue();
+
+    final BoundedLineReader exact = new BoundedLineReader(new StringReader("four\n"), 4);
+    Assertions.assertThat(exact.readLine()).isEqualTo("four");
+    Assertions.assertThat(exact.isTooLong()).isFalse();
+  }
+}
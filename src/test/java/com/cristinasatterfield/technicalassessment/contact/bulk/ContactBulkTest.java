@@ -0,0 +1,207 @@
+package com.cristinasatterfield.technicalassessment.contact.bulk;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.cristinasatterfield.technicalassessment.contact.ContactFormats;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactImportErrorDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactImportResultDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest(
+  webEnvironment = WebEnvironment.RANDOM_PORT,
+  properties = {
+    "spring.datasource.url=jdbc:tc:postgresql:13:///contactbulk"
+  }
+)
+public class ContactBulkTest {
+  @Autowired
+  private TestRestTemplate template;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  public void testImportCsv() {
+    final String csv = "id,name\n"
+      + "1,Ada Lovelace\n"
+      + "2,\"Hopper, Grace\"\n"
+      + "\n"
+      + "3,\"\"\n"
+      + "4,\"Unterminated\n";
+
+    final ContactImportResultDto result = importContacts(ContactFormats.CSV, csv);
+
+    Assertions.assertThat(result.getImported()).isEqualTo(2L);
+    Assertions.assertThat(result.getRejected()).isEqualTo(2L);
+    Assertions.assertThat(result.getErrors()).extracting(ContactImportErrorDto::getLine).containsExactly(5L, 6L);
+    Assertions.assertThat(result.getErrors().get(0).getMessage()).isEqualTo("name must not be blank");
+    Assertions.assertThat(names()).contains("Ada Lovelace", "Hopper, Grace");
+  }
+
+  @Test
+  public void testImportCsvWithoutNameColumn() {
+    final ContactImportResultDto result = importContacts(ContactFormats.CSV, "id,email\n1,a@example.com\n");
+
+    Assertions.assertThat(result.getImported()).isZero();
+    Assertions.assertThat(result.getErrors()).extracting(ContactImportErrorDto::getMessage)
+      .containsExactly("header has no name column");
+  }
+
+  @Test
+  public void testImportNdjson() {
+    final String ndjson = "{\"name\": \"Alan Turing\"}\n"
+      + "{\"name\": \"\"}\n"
+      + "{\"name\": \n"
+      + "{\"id\": 7, \"name\": \"Katherine Johnson\", \"version\": 3}\n";
+
+    final ContactImportResultDto result = importContacts(ContactFormats.NDJSON, ndjson);
+
+    Assertions.assertThat(result.getImported()).isEqualTo(2L);
+    Assertions.assertThat(result.getErrors()).extracting(ContactImportErrorDto::getLine).containsExactly(2L, 3L);
+    Assertions.assertThat(result.getErrors().get(1).getMessage()).startsWith("malformed JSON");
+    Assertions.assertThat(names()).contains("Alan Turing", "Katherine Johnson");
+  }
+
+  @Test
+  public void testImportRejectsLongLines() {
+    final String csv = "name\n"
+      + "Long Line " + "x".repeat(ContactBulkService.MAX_LINE_LENGTH) + "\n"
+      + "Short Line\n";
+
+    final ContactImportResultDto result = importContacts(ContactFormats.CSV, csv);
+
+    Assertions.assertThat(result.getImported()).isEqualTo(1L);
+    Assertions.assertThat(result.getErrors()).extracting(ContactImportErrorDto::getLine).containsExactly(2L);
+    Assertions.assertThat(result.getErrors().get(0).getMessage()).startsWith("line longer than");
+    Assertions.assertThat(names()).contains("Short Line").noneMatch(name -> name.startsWith("Long Line"));
+  }
+
+  @Test
+  public void testImportInChunks() {
+    final int count = ContactBulkService.COPY_CHUNK_SIZE * 2 + 1;
+    final String csv = IntStream.range(0, count)
+      .mapToObj(i -> "Chunked Contact " + i)
+      .collect(Collectors.joining("\n", "name\n", "\n"));
+
+    final ContactImportResultDto result = importContacts(ContactFormats.CSV, csv);
+
+    Assertions.assertThat(result.getImported()).isEqualTo((long) count);
+    Assertions.assertThat(jdbcTemplate.queryForObject(
+      "SELECT count(*) FROM contact WHERE name LIKE 'Chunked Contact %'", Long.class)).isEqualTo((long) count);
+  }
+
+  @Test
+  public void testImportRejectsNul() {
+    final ContactImportResultDto result = importContacts(ContactFormats.NDJSON,
+      "{\"name\": \"Nul\\u0000Name\"}\n{\"name\": \"After Nul\"}\n");
+
+    Assertions.assertThat(result.getImported()).isEqualTo(1L);
+    Assertions.assertThat(result.getErrors()).extracting(ContactImportErrorDto::getLine).containsExactly(1L);
+    Assertions.assertThat(result.getErrors().get(0).getMessage()).isEqualTo("name must not contain NUL characters");
+  }
+
+  @Test
+  public void testImportReportsFailedChunk() {
+    final int count = ContactBulkService.COPY_CHUNK_SIZE + 2;
+    final String csv = IntStream.range(0, count)
+      .mapToObj(i -> i == count - 1 ? "Failing Copy" : "Copied Contact " + i)
+      .collect(Collectors.joining("\n", "name\n", "\n"));
+    // Fails the second chunk in the database rather than in validation
+    jdbcTemplate.execute("ALTER TABLE contact ADD CONSTRAINT contact_no_failing_copy CHECK (name <> 'Failing Copy')");
+    final ContactImportResultDto result;
+    try {
+      result = importContacts(ContactFormats.CSV, csv);
+    } finally {
+      jdbcTemplate.execute("ALTER TABLE contact DROP CONSTRAINT contact_no_failing_copy");
+    }
+
+    Assertions.assertThat(result.getImported()).isEqualTo((long) ContactBulkService.COPY_CHUNK_SIZE);
+    Assertions.assertThat(result.getRejected()).isEqualTo(2L);
+    Assertions.assertThat(result.getErrors()).singleElement().satisfies(error -> {
+      // Line 1 is the header, so the second chunk starts after the first chunk's lines
+      Assertions.assertThat(error.getLine()).isEqualTo(ContactBulkService.COPY_CHUNK_SIZE + 2L);
+      Assertions.assertThat(error.getLastLine()).isEqualTo(ContactBulkService.COPY_CHUNK_SIZE + 3L);
+      Assertions.assertThat(error.getMessage()).startsWith("not imported");
+    });
+    Assertions.assertThat(jdbcTemplate.queryForObject(
+      "SELECT count(*) FROM contact WHERE name LIKE 'Copied Contact %'", Long.class))
+      .isEqualTo((long) ContactBulkService.COPY_CHUNK_SIZE);
+  }
+
+  @Test
+  public void testExportCsv() {
+    importContacts(ContactFormats.CSV, "name\n\"Lamarr, Hedy\"\n");
+
+    final ResponseEntity<String> response = export(ContactFormats.CSV);
+    final List<String> lines = response.getBody().lines().collect(Collectors.toList());
+
+    Assertions.assertThat(response.getHeaders().getContentType()).isEqualTo(ContactFormats.CSV);
+    Assertions.assertThat(lines.get(0)).isEqualTo("id,name,version");
+    Assertions.assertThat(lines).anyMatch(line -> line.endsWith(",\"Lamarr, Hedy\",0"));
+    Assertions.assertThat(lines).hasSize(count() + 1);
+  }
+
+  @Test
+  public void testExportNdjson() {
+    importContacts(ContactFormats.NDJSON, "{\"name\": \"Back\\\\slash \\\"Quoted\\\"\"}\n");
+
+    final List<String> lines = export(ContactFormats.NDJSON).getBody().lines().collect(Collectors.toList());
+    final List<String> names = lines.stream().map(this::readName).collect(Collectors.toList());
+
+    Assertions.assertThat(lines).hasSize(count());
+    Assertions.assertThat(names).contains("Back\\slash \"Quoted\"");
+  }
+
+  private ContactImportResultDto importContacts(MediaType format, String body) {
+    final HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(format);
+    final ResponseEntity<ContactImportResultDto> response = template.postForEntity(
+      "/api/v1/contact/import", new HttpEntity<>(body, headers), ContactImportResultDto.class);
+
+    Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    return response.getBody();
+  }
+
+  private ResponseEntity<String> export(MediaType format) {
+    final HttpHeaders headers = new HttpHeaders();
+    headers.setAccept(List.of(format));
+    return template.exchange("/api/v1/contact/export", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+  }
+
+  private String readName(String line) {
+    try {
+      final JsonNode contact = objectMapper.readTree(line);
+      return contact.get("name").asText();
+    } catch (Exception e) {
+      throw new AssertionError("Not a JSON line: " + line, e);
+    }
+  }
+
+  private List<String> names() {
+    return jdbcTemplate.queryForList("SELECT name FROM contact", String.class);
+  }
+
+  private int count() {
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM contact", Integer.class);
+  }
+}
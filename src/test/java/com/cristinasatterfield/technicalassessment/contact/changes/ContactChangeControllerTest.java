@@ -0,0 +1,123 @@
+package com.cristinasatterfield.technicalassessment.contact.changes;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactChangeBatchDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactChangeDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.UpdateContactDto;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.ResponseEntity;
+
+@SpringBootTest(
+  webEnvironment = WebEnvironment.RANDOM_PORT,
+  properties = {
+    "spring.datasource.url=jdbc:tc:postgresql:13:///contactchanges"
+  }
+)
+public class ContactChangeControllerTest {
+  @Autowired
+  private TestRestTemplate template;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ContactChangeFeed contactChangeFeed;
+
+  @Test
+  public void testChangesInOrder() {
+    final String since = fetch("/api/v1/contact/changes?since=now").getBody().getNext();
+
+    final Contact contact = template.postForObject("/api/v1/contact", new CreateContactDto("A Change"), Contact.class);
+    template.put("/api/v1/contact/" + contact.getId(), new UpdateContactDto("B Change"));
+    template.delete("/api/v1/contact/" + contact.getId());
+
+    final ContactChangeBatchDto batch = fetch("/api/v1/contact/changes?since=" + since).getBody();
+
+    Assertions.assertThat(operations(batch.getChanges())).containsExactly("INSERT", "UPDATE", "DELETE");
+    Assertions.assertThat(batch.getChanges().get(1).getName()).isEqualTo("B Change");
+    Assertions.assertThat(batch.getChanges().get(1).getVersion()).isEqualTo(1L);
+    Assertions.assertThat(batch.getChanges().get(2).getName()).isNull();
+    Assertions.assertThat(fetch("/api/v1/contact/changes?since=" + batch.getNext()).getBody().getChanges()).isEmpty();
+  }
+
+  @Test
+  public void testPagesThroughChanges() {
+    final String since = fetch("/api/v1/contact/changes?since=now").getBody().getNext();
+    for (int i = 0; i < 3; i++) {
+      template.postForObject("/api/v1/contact", new CreateContactDto("Paged Change " + i), Contact.class);
+    }
+
+    final ContactChangeBatchDto first = fetch("/api/v1/contact/changes?limit=2&since=" + since).getBody();
+    final ContactChangeBatchDto second = fetch("/api/v1/contact/changes?limit=2&since=" + first.getNext()).getBody();
+
+    Assertions.assertThat(first.getChanges()).hasSize(2);
+    Assertions.assertThat(second.getChanges()).hasSize(1);
+    Assertions.assertThat(second.getChanges().get(0).getName()).isEqualTo("Paged Change 2");
+  }
+
+  @Test
+  public void testLongPollReturnsNewChange() throws Exception {
+    final String since = fetch("/api/v1/contact/changes?since=now").getBody().getNext();
+
+    final Thread writer = new Thread(() -> {
+      try {
+        Thread.sleep(500);
+      } catch (InterruptedException e) {
+        return;
+      }
+      template.postForObject("/api/v1/contact", new CreateContactDto("Polled Change"), Contact.class);
+    });
+    writer.start();
+
+    final ContactChangeBatchDto batch = fetch("/api/v1/contact/changes?wait=10&since=" + since).getBody();
+    writer.join();
+
+    Assertions.assertThat(batch.getChanges()).hasSize(1);
+    Assertions.assertThat(batch.getChanges().get(0).getName()).isEqualTo("Polled Change");
+  }
+
+  @Test
+  public void testGoneOncePruned() {
+    final String since = fetch("/api/v1/contact/changes?since=now").getBody().getNext();
+    template.postForObject("/api/v1/contact", new CreateContactDto("Pruned Change"), Contact.class);
+    final ContactChangeToken next = ContactChangeToken.parse(
+      fetch("/api/v1/contact/changes?since=" + since).getBody().getNext());
+    template.postForObject("/api/v1/contact", new CreateContactDto("Kept Change"), Contact.class);
+
+    // Age the first change past the retention
+    jdbcTemplate.update(
+      "UPDATE contact_change SET changed_at = now() - interval '30 days' WHERE (xid, change_id) <= (?, ?)",
+      next.getXid(), next.getChangeId());
+    contactChangeFeed.prune();
+
+    Assertions.assertThat(fetch("/api/v1/contact/changes?since=" + since).getStatusCodeValue()).isEqualTo(410);
+    Assertions.assertThat(template.getForEntity("/api/v1/contact/changes/stream?since=" + since, String.class)
+      .getStatusCodeValue()).isEqualTo(410);
+    final ContactChangeBatchDto kept = fetch("/api/v1/contact/changes?since=" + next).getBody();
+    Assertions.assertThat(kept.getChanges()).extracting(ContactChangeDto::getName).containsExactly("Kept Change");
+  }
+
+  @Test
+  public void testInvalidToken() {
+    Assertions.assertThat(fetch("/api/v1/contact/changes?since=nope").getStatusCodeValue()).isEqualTo(400);
+  }
+
+  private ResponseEntity<ContactChangeBatchDto> fetch(String url) {
+    return template.getForEntity(url, ContactChangeBatchDto.class);
+  }
+
+  private static List<String> operations(List<ContactChangeDto> changes) {
+    return changes.stream().map(ContactChangeDto::getOperation).collect(Collectors.toList());
+  }
+}
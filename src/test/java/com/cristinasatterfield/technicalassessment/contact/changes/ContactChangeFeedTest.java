@@ -0,0 +1,181 @@
+package com.cristinasatterfield.technicalassessment.contact.changes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactChangeBatchDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactChangeDto;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ContactChangeFeedTest {
+  private final AtomicLong newest = new AtomicLong();
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private final AtomicBoolean pruned = new AtomicBoolean();
+
+  private final ContactChangeFeed feed = new StubFeed(newest, pruned, registry);
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    feed.destroy();
+  }
+
+  @Test
+  public void testSlowSubscriberDoesNotHoldUpOthers() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger slowBatches = new AtomicInteger();
+    feed.subscribe(ContactChangeToken.START, 10, batch -> {
+      slowBatches.incrementAndGet();
+      await(release);
+      return true;
+    }, () -> { });
+    final CountDownLatch delivered = new CountDownLatch(2);
+    feed.subscribe(ContactChangeToken.START, 10, batch -> {
+      delivered.countDown();
+      return true;
+    }, () -> { });
+
+    poll(1);
+    // Until the fast subscriber has handled a later batch too
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!delivered.await(1, TimeUnit.MILLISECONDS) && System.nanoTime() < deadline) {
+      poll(2);
+    }
+
+    Assertions.assertThat(delivered.getCount()).isZero();
+    // Skipped by every later poll while still handling its first batch
+    Assertions.assertThat(slowBatches.get()).isEqualTo(1);
+    release.countDown();
+  }
+
+  @Test
+  public void testCancelsSubscriberThatStops() throws Exception {
+    final CountDownLatch delivered = new CountDownLatch(1);
+    feed.subscribe(ContactChangeToken.START, 10, batch -> {
+      delivered.countDown();
+      return false;
+    }, () -> { });
+
+    poll(1);
+
+    Assertions.assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+    awaitNoSubscribers();
+  }
+
+  @Test
+  public void testCatchesUpPageByPageFromOnePoll() throws Exception {
+    final List<Integer> sizes = new ArrayList<>();
+    final CountDownLatch caughtUp = new CountDownLatch(1);
+    feed.subscribe(ContactChangeToken.START, 10, batch -> {
+      synchronized (sizes) {
+        sizes.add(batch.getChanges().size());
+      }
+      if (batch.getNext().equals(new ContactChangeToken(25, 0).toString())) {
+        caughtUp.countDown();
+      }
+      return true;
+    }, () -> { });
+
+    poll(25);
+
+    Assertions.assertThat(caughtUp.await(5, TimeUnit.SECONDS)).isTrue();
+    synchronized (sizes) {
+      Assertions.assertThat(sizes).containsExactly(10, 10, 5);
+    }
+  }
+
+  @Test
+  public void testTellsSubscriberItsChangesWerePruned() throws Exception {
+    final AtomicInteger batches = new AtomicInteger();
+    final CountDownLatch gone = new CountDownLatch(1);
+    feed.subscribe(ContactChangeToken.START, 10, batch -> {
+      batches.incrementAndGet();
+      return true;
+    }, gone::countDown);
+    pruned.set(true);
+
+    poll(1);
+
+    Assertions.assertThat(gone.await(5, TimeUnit.SECONDS)).isTrue();
+    Assertions.assertThat(batches.get()).isZero();
+    awaitNoSubscribers();
+  }
+
+  private void awaitNoSubscribers() throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (subscribers() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    Assertions.assertThat(subscribers()).isZero();
+  }
+
+  private void poll(long newestXid) {
+    newest.set(newestXid);
+    feed.notifySubscribers();
+  }
+
+  private double subscribers() {
+    return registry.get("contact.changes.subscribers").gauge().value();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Reports the newest change set by the test, and answers each fetch with one change
+   * per xid after the token up to it, or as pruned once the test says so. Polls are
+   * driven by the test rather than the schedule.
+   */
+  private static class StubFeed extends ContactChangeFeed {
+    private final AtomicLong newest;
+
+    private final AtomicBoolean pruned;
+
+    StubFeed(AtomicLong newest, AtomicBoolean pruned, SimpleMeterRegistry registry) {
+      super(new JdbcTemplate() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper) {
+          return (List<T>) List.of(new ContactChangeToken(newest.get(), 0));
+        }
+      }, Duration.ofHours(1), Duration.ofDays(7), registry);
+      this.newest = newest;
+      this.pruned = pruned;
+    }
+
+    @Override
+    public Optional<ContactChangeBatchDto> fetch(ContactChangeToken since, int limit) {
+      if (pruned.get()) {
+        return Optional.empty();
+      }
+      final long last = Math.min(newest.get(), since.getXid() + limit);
+      final List<ContactChangeDto> changes = LongStream.rangeClosed(since.getXid() + 1, last)
+        .mapToObj(xid -> new ContactChangeDto("INSERT", xid, "Contact " + xid, 0L))
+        .collect(Collectors.toList());
+      final ContactChangeToken next = changes.isEmpty() ? since : new ContactChangeToken(last, 0);
+      return Optional.of(new ContactChangeBatchDto(changes, next.toString()));
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.cristinasatterfield.technicalassessment.contact.ingest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ContactIngestLogTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  public void testAppendPeekRemove() throws IOException {
+    try (ContactIngestLog log = new ContactIngestLog(directory.resolve("ingest.log"), 1024)) {
+      log.append(1L, "A Smith");
+      log.append(2L, "B Smith");
+      log.append(3L, "C Smith");
+
+      final ContactIngestLog.Batch batch = log.peek(2);
+      Assertions.assertThat(ids(batch)).containsExactly(1L, 2L);
+      Assertions.assertThat(batch.getContacts().get(0).getName()).isEqualTo("A Smith");
+      Assertions.assertThat(log.size()).isEqualTo(3);
+
+      log.remove(batch);
+      Assertions.assertThat(log.size()).isEqualTo(1);
+      Assertions.assertThat(ids(log.peek(10))).containsExactly(3L);
+    }
+  }
+
+  @Test
+  public void testRejectsWhenFull() throws IOException {
+    // Each record is 4 + 8 + 7 = 19 bytes
+    try (ContactIngestLog log = new ContactIngestLog(directory.resolve("ingest.log"), 40)) {
+      Assertions.assertThat(log.append(1L, "A Smith")).isTrue();
+      Assertions.assertThat(log.append(2L, "B Smith")).isTrue();
+      Assertions.assertThat(log.append(3L, "C Smith")).isFalse();
+
+      log.remove(log.peek(1));
+      // The record no longer fits before the end, so it wraps into the freed space
+      Assertions.assertThat(log.append(3L, "C Smith")).isTrue();
+      Assertions.assertThat(ids(log.peek(10))).containsExactly(2L, 3L);
+    }
+  }
+
+  @Test
+  public void testWrapsAround() throws IOException {
+    try (ContactIngestLog log = new ContactIngestLog(directory.resolve("ingest.log"), 100)) {
+      for (long id = 1; id <= 50; id++) {
+        Assertions.assertThat(log.append(id, "Contact " + id)).isTrue();
+        final ContactIngestLog.Batch batch = log.peek(10);
+        Assertions.assertThat(ids(batch)).containsExactly(id);
+        Assertions.assertThat(batch.getContacts().get(0).getName()).isEqualTo("Contact " + id);
+        log.remove(batch);
+      }
+      Assertions.assertThat(log.size()).isZero();
+      Assertions.assertThat(log.usedBytes()).isZero();
+    }
+  }
+
+  @Test
+  public void testReplaysAfterReopen() throws IOException {
+    final Path file = directory.resolve("ingest.log");
+    try (ContactIngestLog log = new ContactIngestLog(file, 1024)) {
+      log.append(1L, "A Smith");
+      log.append(2L, "B Smith");
+      log.remove(log.peek(1));
+    }
+
+    try (ContactIngestLog log = new ContactIngestLog(file, 1024)) {
+      Assertions.assertThat(log.size()).isEqualTo(1);
+      Assertions.assertThat(ids(log.peek(10))).containsExactly(2L);
+    }
+  }
+
+  private static List<Long> ids(ContactIngestLog.Batch batch) {
+    return batch.getContacts().stream().map(Contact::getId).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,159 @@
+package com.cristinasatterfield.technicalassessment.contact.ingest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactService;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ContactIngestQueueTest {
+  @TempDir
+  Path directory;
+
+  private final StubContactService contactService = new StubContactService();
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  public void testDropsRowsPostgresRejects() throws Exception {
+    final ContactIngestQueue queue = queue();
+    try {
+      contactService.rejected = "Bad Smith";
+      queue.enqueue(new CreateContactDto("A Smith"));
+      queue.enqueue(new CreateContactDto("Bad Smith"));
+      queue.enqueue(new CreateContactDto("B Smith"));
+
+      awaitUntil(() -> depth() == 0);
+
+      Assertions.assertThat(names(contactService.inserted)).containsExactly("A Smith", "B Smith");
+      Assertions.assertThat(registry.get("contact.ingest.dropped").counter().count()).isEqualTo(1);
+      // Later contacts are not held up by the dropped one
+      queue.enqueue(new CreateContactDto("C Smith"));
+      awaitUntil(() -> contactService.inserted.size() == 3);
+    } finally {
+      queue.destroy();
+    }
+  }
+
+  @Test
+  public void testKeepsRowsWhileDatabaseIsDown() throws Exception {
+    final ContactIngestQueue queue = queue();
+    try {
+      contactService.down.set(true);
+      queue.enqueue(new CreateContactDto("A Smith"));
+      queue.enqueue(new CreateContactDto("B Smith"));
+
+      awaitUntil(() -> contactService.attempts.get() > 3);
+      Assertions.assertThat(depth()).isEqualTo(2);
+
+      contactService.down.set(false);
+      awaitUntil(() -> depth() == 0);
+      Assertions.assertThat(names(contactService.inserted)).containsExactly("A Smith", "B Smith");
+      Assertions.assertThat(registry.get("contact.ingest.dropped").counter().count()).isZero();
+    } finally {
+      queue.destroy();
+    }
+  }
+
+  @Test
+  public void testReplaysAfterRestart() throws Exception {
+    contactService.down.set(true);
+    final ContactIngestQueue stopped = queue();
+    stopped.enqueue(new CreateContactDto("A Smith"));
+    stopped.enqueue(new CreateContactDto("B Smith"));
+    stopped.destroy();
+
+    contactService.down.set(false);
+    final ContactIngestQueue restarted = queue();
+    try {
+      awaitUntil(() -> contactService.inserted.size() == 2);
+      Assertions.assertThat(names(contactService.inserted)).containsExactly("A Smith", "B Smith");
+    } finally {
+      restarted.destroy();
+    }
+  }
+
+  @Test
+  public void testRejectsNamesPostgresCannotStore() throws Exception {
+    final ContactIngestQueue queue = queue();
+    try {
+      Assertions.assertThatThrownBy(() -> queue.enqueue(new CreateContactDto("a\u0000b")))
+        .isInstanceOf(IllegalArgumentException.class);
+      Assertions.assertThat(depth()).isZero();
+    } finally {
+      queue.destroy();
+    }
+  }
+
+  private ContactIngestQueue queue() throws Exception {
+    return new ContactIngestQueue(directory.resolve("ingest.log"), 4096, 10, Duration.ofMillis(10),
+      new StubIdAllocator(), contactService, registry);
+  }
+
+  private double depth() {
+    return registry.get("contact.ingest.queue.depth").gauge().value();
+  }
+
+  private static List<String> names(List<Contact> contacts) {
+    return contacts.stream().map(Contact::getName).collect(Collectors.toList());
+  }
+
+  private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    Assertions.assertThat(condition.getAsBoolean()).isTrue();
+  }
+
+  private static class StubIdAllocator extends ContactIdAllocator {
+    private final AtomicLong next = new AtomicLong();
+
+    @Override
+    public long nextId() {
+      return next.incrementAndGet();
+    }
+  }
+
+  /**
+   * Fails every insert while down, and fails any insert holding the rejected name the
+   * way Postgres fails a multi-row insert with one bad row
+   */
+  private static class StubContactService extends ContactService {
+    private final List<Contact> inserted = new CopyOnWriteArrayList<>();
+
+    private final AtomicBoolean down = new AtomicBoolean();
+
+    private final AtomicLong attempts = new AtomicLong();
+
+    private volatile String rejected;
+
+    @Override
+    public void insertContacts(List<Contact> contacts) {
+      attempts.incrementAndGet();
+      if (down.get()) {
+        throw new DataAccessResourceFailureException("connection refused");
+      }
+      if (contacts.stream().anyMatch(contact -> contact.getName().equals(rejected))) {
+        throw new DataIntegrityViolationException("invalid byte sequence");
+      }
+      inserted.addAll(contacts);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.cristinasatterfield.technicalassessment.contact.search;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSearchHitDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSearchPageDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@TestInstance(Lifecycle.PER_CLASS)
+@SpringBootTest(
+  webEnvironment = WebEnvironment.RANDOM_PORT,
+  properties = {
+    "spring.datasource.url=jdbc:tc:postgresql:13:///contactsearch"
+  }
+)
+public class ContactSearchTest {
+  @Autowired
+  private TestRestTemplate template;
+
+  @Autowired
+  private NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @BeforeAll
+  public void createContacts() {
+    for (String name : List.of("John Smith", "Johnny Appleseed", "Zoë Saldaña", "Jane Doe", "Agent Smith")) {
+      template.postForObject("/api/v1/contact", new CreateContactDto(name), Contact.class);
+    }
+  }
+
+  @Test
+  public void testMatchesWordPrefixesInAnyOrder() {
+    Assertions.assertThat(names(search("q=smith john&fuzzy=false"))).containsExactly("John Smith");
+    Assertions.assertThat(names(search("q=joh&fuzzy=false"))).containsExactlyInAnyOrder("John Smith", "Johnny Appleseed");
+  }
+
+  @Test
+  public void testIgnoresAccents() {
+    Assertions.assertThat(names(search("q=zoe saldana&fuzzy=false"))).containsExactly("Zoë Saldaña");
+  }
+
+  @Test
+  public void testFuzzyFindsTypos() {
+    Assertions.assertThat(names(search("q=Jonh&fuzzy=false"))).isEmpty();
+    Assertions.assertThat(names(search("q=Jonh"))).first().isEqualTo("John Smith");
+  }
+
+  @Test
+  public void testRanksWordMatchesFirst() {
+    final List<ContactSearchHitDto> hits = search("q=smith").getHits();
+
+    Assertions.assertThat(names(hits).subList(0, 2)).containsExactlyInAnyOrder("John Smith", "Agent Smith");
+    Assertions.assertThat(hits).isSortedAccordingTo((a, b) -> Double.compare(b.getScore(), a.getScore()));
+  }
+
+  @Test
+  public void testPagesThroughHits() {
+    final ContactSearchPageDto first = search("q=smith&fuzzy=false&limit=1");
+    final ContactSearchPageDto second = search("q=smith&fuzzy=false&limit=1&offset=" + first.getNext());
+
+    Assertions.assertThat(first.getNext()).isEqualTo(1);
+    Assertions.assertThat(names(first.getHits())).doesNotContainAnyElementsOf(names(second.getHits()));
+    Assertions.assertThat(search("q=smith&fuzzy=false&limit=1&offset=2").getNext()).isNull();
+  }
+
+  @Test
+  public void testRejectsSearchWithoutWords() {
+    Assertions.assertThat(template.getForEntity("/api/v1/contact/search?q=:* &", String.class).getStatusCode())
+      .isEqualTo(HttpStatus.BAD_REQUEST);
+    Assertions.assertThat(template.getForEntity("/api/v1/contact/search?q=smith&offset=1000", String.class).getStatusCode())
+      .isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  public void testUsesIndexes() {
+    for (boolean fuzzy : new boolean[] { false, true }) {
+      final String plan = explain(fuzzy);
+
+      Assertions.assertThat(plan).contains("Bitmap Index Scan").doesNotContain("Seq Scan");
+    }
+  }
+
+  /**
+   * The test table is small enough for a scan to win, so take that option away and
+   * check an index can answer the query at all
+   */
+  private String explain(boolean fuzzy) {
+    return transactionTemplate.execute(status -> {
+      jdbcTemplate.getJdbcTemplate().execute("SET LOCAL enable_seqscan = off");
+      final MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("query", ContactSearch.toTsQuery("smith"))
+        .addValue("term", "smith")
+        .addValue("offset", 0)
+        .addValue("limit", 10);
+      return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + ContactSearch.sql(fuzzy), params, String.class));
+    });
+  }
+
+  private ContactSearchPageDto search(String query) {
+    return template.getForObject("/api/v1/contact/search?" + query, ContactSearchPageDto.class);
+  }
+
+  private static List<String> names(ContactSearchPageDto page) {
+    return names(page.getHits());
+  }
+
+  private static List<String> names(List<ContactSearchHitDto> hits) {
+    return hits.stream().map(ContactSearchHitDto::getName).collect(Collectors.toList());
+  }
+}
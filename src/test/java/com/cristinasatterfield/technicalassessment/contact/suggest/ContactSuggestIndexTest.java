@@ -0,0 +1,95 @@
+package com.cristinasatterfield.technicalassessment.contact.suggest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.cristinasatterfield.technicalassessment.contact.dto.ContactSuggestionDto;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ContactSuggestIndexTest {
+  @Test
+  public void testMatchesAnyWord() {
+    final ContactSuggestIndex index = load();
+
+    Assertions.assertThat(names(index.suggest("ann", 10))).containsExactly("Bob Ann", "Anna Smith", "Zoë Annabel", "annie");
+    Assertions.assertThat(names(index.suggest("SMI", 10))).containsExactly("Anna Smith");
+    Assertions.assertThat(names(index.suggest("ann", 2))).containsExactly("Bob Ann", "Anna Smith");
+  }
+
+  @Test
+  public void testIgnoresAccents() {
+    final ContactSuggestIndex index = load();
+
+    Assertions.assertThat(names(index.suggest("zoe", 10))).containsExactly("Zoë Annabel");
+    Assertions.assertThat(names(index.suggest("zoë", 10))).containsExactly("Zoë Annabel");
+  }
+
+  @Test
+  public void testAppliesWrites() {
+    final ContactSuggestIndex index = load();
+
+    index.put(1, "Zed Smith");
+    index.remove(4);
+    index.put(5, "Anne New");
+
+    Assertions.assertThat(names(index.suggest("ann", 10))).containsExactly("Bob Ann", "Zoë Annabel", "Anne New");
+    Assertions.assertThat(names(index.suggest("zed", 10))).containsExactly("Zed Smith");
+  }
+
+  @Test
+  public void testCompactsWrites() throws InterruptedException {
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final ContactSuggestIndex index = new ContactSuggestIndex(registry);
+    index.load(sink -> sink.add(1, "Anna Smith"));
+
+    for (long id = 2; id <= 20000; id++) {
+      index.put(id, "Bulk " + id);
+    }
+    index.remove(1);
+    for (int i = 0; i < 100 && registry.get("contact.suggest.index.names").gauge().value() < 10000; i++) {
+      Thread.sleep(50);
+    }
+
+    Assertions.assertThat(registry.get("contact.suggest.index.names").gauge().value()).isGreaterThanOrEqualTo(10000);
+    Assertions.assertThat(index.suggest("ann", 10)).isEmpty();
+    Assertions.assertThat(names(index.suggest("bulk 19999", 10))).containsExactly("Bulk 19999");
+  }
+
+  @Test
+  public void testRecoversFromFailedLoad() {
+    final ContactSuggestIndex index = new ContactSuggestIndex(new SimpleMeterRegistry());
+
+    Assertions.assertThatThrownBy(() -> index.load(sink -> {
+      sink.add(1, "Anna Smith");
+      throw new IllegalStateException("connection lost");
+    })).isInstanceOf(IllegalStateException.class);
+    index.put(5, "Anne New");
+
+    Assertions.assertThat(index.isReady()).isFalse();
+    Assertions.assertThat(names(index.suggest("ann", 10))).containsExactly("Anne New");
+
+    index.load(sink -> sink.add(1, "Anna Smith"));
+
+    Assertions.assertThat(index.isReady()).isTrue();
+    Assertions.assertThat(names(index.suggest("ann", 10))).containsExactly("Anna Smith");
+  }
+
+  private static ContactSuggestIndex load() {
+    final ContactSuggestIndex index = new ContactSuggestIndex(new SimpleMeterRegistry());
+    index.load(sink -> {
+      sink.add(1, "Anna Smith");
+      sink.add(2, "Zoë Annabel");
+      sink.add(3, "Bob Ann");
+      sink.add(4, "annie");
+    });
+    return index;
+  }
+
+  private static List<String> names(List<ContactSuggestionDto> suggestions) {
+    return suggestions.stream().map(ContactSuggestionDto::getName).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,33 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DataSourcePoolSizerTest {
+  @Test
+  public void testSizesFromDatabaseCores() {
+    Assertions.assertThat(DataSourcePoolSizer.poolSize(8, 100, 10, 1)).isEqualTo(17);
+  }
+
+  @Test
+  public void testSplitsBetweenInstances() {
+    Assertions.assertThat(DataSourcePoolSizer.poolSize(8, 100, 10, 4)).isEqualTo(5);
+  }
+
+  @Test
+  public void testStaysWithinMaxConnections() {
+    Assertions.assertThat(DataSourcePoolSizer.poolSize(64, 100, 10, 3)).isEqualTo(30);
+    Assertions.assertThat(DataSourcePoolSizer.poolSize(8, 10, 10, 1)).isEqualTo(1);
+  }
+
+  @Test
+  public void testSizesHikariDataSources() {
+    try (HikariDataSource dataSource = new HikariDataSource()) {
+      new DataSourcePoolSizer(17).postProcessAfterInitialization(dataSource, "dataSource");
+
+      Assertions.assertThat(dataSource.getMaximumPoolSize()).isEqualTo(17);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ReplicaRoutingDataSourceTest {
+  @Test
+  public void testClosesReplicaPools() {
+    try (HikariDataSource primary = new HikariDataSource()) {
+      final HikariDataSource first = new HikariDataSource();
+      final HikariDataSource second = new HikariDataSource();
+      final ReplicaRoutingDataSource routing =
+        new ReplicaRoutingDataSource(primary, List.<DataSource>of(first, second), Duration.ofSeconds(5), Duration.ofMinutes(1));
+
+      routing.destroy();
+
+      Assertions.assertThat(first.isClosed()).isTrue();
+      Assertions.assertThat(second.isClosed()).isTrue();
+      Assertions.assertThat(primary.isClosed()).isFalse();
+    }
+  }
+}
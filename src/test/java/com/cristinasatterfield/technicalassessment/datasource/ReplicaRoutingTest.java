@@ -0,0 +1,80 @@
+package com.cristinasatterfield.technicalassessment.datasource;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * The "replica" here is a second, unreplicated Postgres, so a contact written to the
+ * primary is only visible when a read is routed to the primary.
+ */
+@SpringBootTest(
+  webEnvironment = WebEnvironment.RANDOM_PORT,
+  properties = {
+    "app.datasource.routing.enabled=true",
+    "contact.cache.enabled=false",
+    "spring.datasource.url=jdbc:tc:postgresql:13:///replicarouting"
+  }
+)
+public class ReplicaRoutingTest {
+  private static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>("postgres:13");
+
+  static {
+    REPLICA.start();
+    Flyway.configure()
+      .dataSource(REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword())
+      .load()
+      .migrate();
+  }
+
+  @DynamicPropertySource
+  static void replicaProperties(DynamicPropertyRegistry registry) {
+    registry.add("app.datasource.routing.replicas[0].url", REPLICA::getJdbcUrl);
+    registry.add("app.datasource.routing.replicas[0].username", REPLICA::getUsername);
+    registry.add("app.datasource.routing.replicas[0].password", REPLICA::getPassword);
+  }
+
+  @Autowired
+  private TestRestTemplate template;
+
+  @Test
+  public void testReadsGoToReplica() {
+    final Contact contact = createContact("A Replica").getBody();
+    final ResponseEntity<Contact> response = template.getForEntity("/api/v1/contact/" + contact.getId(), Contact.class);
+
+    Assertions.assertThat(response.getStatusCodeValue()).isEqualTo(404);
+  }
+
+  @Test
+  public void testReadYourWrites() {
+    final ResponseEntity<Contact> created = createContact("B Replica");
+    final String cookie = created.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+
+    Assertions.assertThat(cookie).startsWith(ReadYourWritesFilter.COOKIE_NAME);
+
+    final HttpHeaders headers = new HttpHeaders();
+    headers.add(HttpHeaders.COOKIE, cookie.split(";")[0]);
+    final ResponseEntity<Contact> response = template.exchange("/api/v1/contact/" + created.getBody().getId(),
+      HttpMethod.GET, new HttpEntity<>(headers), Contact.class);
+
+    Assertions.assertThat(response.getStatusCodeValue()).isEqualTo(200);
+  }
+
+  private ResponseEntity<Contact> createContact(String name) {
+    return template.postForEntity("/api/v1/contact", new CreateContactDto(name), Contact.class);
+  }
+}
@@ -0,0 +1,75 @@
+package com.cristinasatterfield.technicalassessment.metrics;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+public class QueryCountDataSourceTest {
+  private final QueryCountDataSource dataSource = new QueryCountDataSource(new StubDataSource());
+
+  @Test
+  public void testCountsStatementsOnCurrentThread() throws Exception {
+    QueryCountDataSource.reset();
+    try (Connection connection = dataSource.getConnection()) {
+      connection.prepareStatement("SELECT 1");
+      connection.createStatement();
+      connection.setAutoCommit(false);
+      CompletableFuture.runAsync(() -> {
+        try {
+          connection.prepareStatement("SELECT 2");
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      }).get();
+    }
+
+    Assertions.assertThat(QueryCountDataSource.count()).isEqualTo(2);
+    QueryCountDataSource.reset();
+    Assertions.assertThat(QueryCountDataSource.count()).isZero();
+  }
+
+  @Test
+  public void testUnwrapsToTargetConnection() throws Exception {
+    try (Connection connection = dataSource.getConnection()) {
+      Assertions.assertThat(connection.unwrap(String.class)).isEqualTo("target");
+    }
+  }
+
+  /**
+   * Hands out connections that answer prepareStatement and createStatement with stubs,
+   * and unwrap with a marker
+   */
+  private static class StubDataSource extends AbstractDataSource {
+    @Override
+    public Connection getConnection() {
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "prepareStatement":
+              return stub(PreparedStatement.class);
+            case "createStatement":
+              return stub(Statement.class);
+            case "unwrap":
+              return "target";
+            default:
+              return null;
+          }
+        });
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) {
+      return getConnection();
+    }
+
+    private static <T> T stub(Class<T> type) {
+      return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> null));
+    }
+  }
+}
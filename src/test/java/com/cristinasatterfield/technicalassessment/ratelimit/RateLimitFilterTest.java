@@ -0,0 +1,169 @@
+package com.cristinasatterfield.technicalassessment.ratelimit;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RateLimitFilterTest {
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private final AtomicInteger pendingConnections = new AtomicInteger();
+
+  @Test
+  public void testLimitsKnownKeys() throws Exception {
+    final RateLimitFilter filter = filter(properties());
+
+    Assertions.assertThat(search(filter, "known").getStatus()).isEqualTo(200);
+    final MockHttpServletResponse limited = search(filter, "known");
+
+    Assertions.assertThat(limited.getStatus()).isEqualTo(429);
+    Assertions.assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    Assertions.assertThat(rejected("rate-limit")).isEqualTo(1);
+  }
+
+  @Test
+  public void testIgnoresUnknownKeys() throws Exception {
+    final RateLimitFilter filter = filter(properties());
+
+    for (int i = 0; i < 3; i++) {
+      Assertions.assertThat(search(filter, "made-up-" + i).getStatus()).isEqualTo(200);
+      Assertions.assertThat(search(filter, null).getStatus()).isEqualTo(200);
+    }
+  }
+
+  @Test
+  public void testLimitsUnknownKeysByAddress() throws Exception {
+    final RateLimitProperties properties = properties();
+    properties.setByAddress(true);
+    final RateLimitFilter filter = filter(properties);
+
+    Assertions.assertThat(search(filter, "made-up-1").getStatus()).isEqualTo(200);
+    Assertions.assertThat(search(filter, "made-up-2").getStatus()).isEqualTo(429);
+    Assertions.assertThat(search(filter, "known").getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  public void testShedsWhilePoolIsSaturated() throws Exception {
+    final RateLimitFilter filter = filter(properties());
+    pendingConnections.set(3);
+
+    final MockHttpServletResponse shed = search(filter, null);
+    final MockHttpServletResponse lookup = execute(filter, request("GET", "/api/v1/contact/1", null), (req, res) -> { });
+
+    Assertions.assertThat(shed.getStatus()).isEqualTo(503);
+    Assertions.assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    Assertions.assertThat(lookup.getStatus()).isEqualTo(200);
+    Assertions.assertThat(rejected("pool-saturated")).isEqualTo(1);
+  }
+
+  @Test
+  public void testHoldsSearchPermitUntilAsyncCompletes() throws Exception {
+    final RateLimitFilter filter = filter(properties());
+    final MockHttpServletRequest export = request("GET", "/api/v1/contact/export", null);
+    export.setAsyncSupported(true);
+
+    execute(filter, export, (req, res) -> req.startAsync());
+    Assertions.assertThat(export.isAsyncStarted()).isTrue();
+    Assertions.assertThat(search(filter, null).getStatus()).isEqualTo(503);
+    Assertions.assertThat(rejected("concurrency")).isEqualTo(1);
+
+    ((MockAsyncContext) export.getAsyncContext()).complete();
+
+    Assertions.assertThat(search(filter, null).getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  public void testLimitsChangeFeedApartFromSearches() throws Exception {
+    final RateLimitFilter filter = filter(properties());
+    final MockHttpServletRequest stream = request("GET", "/api/v1/contact/changes/stream", null);
+    stream.setAsyncSupported(true);
+
+    execute(filter, stream, (req, res) -> req.startAsync());
+    Assertions.assertThat(stream.isAsyncStarted()).isTrue();
+    // An open stream holds a feed permit, not a search permit
+    Assertions.assertThat(search(filter, null).getStatus()).isEqualTo(200);
+    final MockHttpServletResponse longPoll = execute(filter, request("GET", "/api/v1/contact/changes", null),
+      (req, res) -> { });
+    Assertions.assertThat(longPoll.getStatus()).isEqualTo(503);
+    Assertions.assertThat(rejected("feed", "concurrency")).isEqualTo(1);
+
+    ((MockAsyncContext) stream.getAsyncContext()).complete();
+
+    Assertions.assertThat(execute(filter, request("GET", "/api/v1/contact/changes", null), (req, res) -> { })
+      .getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  public void testReleasesSearchPermitWhenChainFails() throws Exception {
+    final RateLimitFilter filter = filter(properties());
+
+    Assertions.assertThatThrownBy(() -> execute(filter, request("GET", "/api/v1/contact", null), (req, res) -> {
+      throw new IllegalStateException("failed");
+    })).isInstanceOf(IllegalStateException.class);
+
+    Assertions.assertThat(search(filter, null).getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  public void testSkipsOtherPaths() throws Exception {
+    final RateLimitFilter filter = filter(properties());
+    pendingConnections.set(3);
+
+    Assertions.assertThat(execute(filter, request("GET", "/actuator/health", null), (req, res) -> { }).getStatus())
+      .isEqualTo(200);
+  }
+
+  private static RateLimitProperties properties() {
+    final RateLimitProperties properties = new RateLimitProperties();
+    properties.setApiKeys(Set.of("known"));
+    properties.setSlots(64);
+    properties.setSearch(new RateLimitProperties.Budget(1, 1));
+    properties.setMaxPendingConnections(2);
+    properties.setMaxConcurrentSearches(1);
+    properties.setMaxConcurrentFeeds(1);
+    return properties;
+  }
+
+  private RateLimitFilter filter(RateLimitProperties properties) {
+    return new RateLimitFilter(properties, pendingConnections::get, registry);
+  }
+
+  private double rejected(String reason) {
+    return registry.get("http.server.requests.rejected").tag("reason", reason).counter().count();
+  }
+
+  private double rejected(String requestClass, String reason) {
+    return registry.get("http.server.requests.rejected").tag("class", requestClass).tag("reason", reason).counter()
+      .count();
+  }
+
+  private static MockHttpServletResponse search(RateLimitFilter filter, String apiKey) throws Exception {
+    return execute(filter, request("GET", "/api/v1/contact", apiKey), (req, res) -> { });
+  }
+
+  private static MockHttpServletRequest request(String method, String uri, String apiKey) {
+    final MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+    if (apiKey != null) {
+      request.addHeader("X-API-Key", apiKey);
+    }
+    return request;
+  }
+
+  private static MockHttpServletResponse execute(RateLimitFilter filter, HttpServletRequest request, FilterChain chain)
+    throws Exception {
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+}
@@ -0,0 +1,65 @@
+package com.cristinasatterfield.technicalassessment.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTableTest {
+  @Test
+  public void testBurstThenLimit() {
+    final TokenBucketTable table = new TokenBucketTable(1024, 1, 5);
+
+    for (int i = 0; i < 5; i++) {
+      Assertions.assertThat(table.tryAcquire("a")).isZero();
+    }
+    final long waitNanos = table.tryAcquire("a");
+
+    Assertions.assertThat(waitNanos).isPositive().isLessThanOrEqualTo(1_000_000_000L);
+  }
+
+  @Test
+  public void testKeysHaveSeparateBuckets() {
+    final TokenBucketTable table = new TokenBucketTable(1024, 1, 1);
+
+    Assertions.assertThat(table.tryAcquire("a")).isZero();
+    Assertions.assertThat(table.tryAcquire("a")).isPositive();
+    Assertions.assertThat(table.tryAcquire("b")).isZero();
+  }
+
+  @Test
+  public void testRefills() throws InterruptedException {
+    final TokenBucketTable table = new TokenBucketTable(1024, 100, 1);
+
+    Assertions.assertThat(table.tryAcquire("a")).isZero();
+    Assertions.assertThat(table.tryAcquire("a")).isPositive();
+    Thread.sleep(20);
+    Assertions.assertThat(table.tryAcquire("a")).isZero();
+  }
+
+  @Test
+  public void testConcurrentAcquiresNeverExceedBurst() throws InterruptedException {
+    final TokenBucketTable table = new TokenBucketTable(1024, 0.001, 100);
+    final AtomicInteger granted = new AtomicInteger();
+
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      final Thread thread = new Thread(() -> {
+        for (int j = 0; j < 1000; j++) {
+          if (table.tryAcquire("a") == 0) {
+            granted.incrementAndGet();
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    Assertions.assertThat(granted.get()).isEqualTo(100);
+  }
+}
@@ -0,0 +1,113 @@
+package com.cristinasatterfield.technicalassessment.reactive;
+
+import java.util.List;
+
+import com.cristinasatterfield.technicalassessment.contact.Contact;
+import com.cristinasatterfield.technicalassessment.contact.ContactController;
+import com.cristinasatterfield.technicalassessment.contact.dto.CreateContactDto;
+import com.cristinasatterfield.technicalassessment.contact.dto.UpdateContactDto;
+
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@SpringBootTest(
+  classes = ReactiveContactApplication.class,
+  webEnvironment = WebEnvironment.RANDOM_PORT,
+  properties = "spring.main.web-application-type=reactive"
+)
+public class ReactiveContactControllerTest {
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:13");
+
+  static {
+    POSTGRES.start();
+    Flyway.configure()
+      .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+      .load()
+      .migrate();
+  }
+
+  @DynamicPropertySource
+  static void r2dbcProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+      + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName());
+    registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+    registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+  }
+
+  @Autowired
+  private WebTestClient client;
+
+  @Test
+  public void testContactLifecycle() {
+    final Contact created = createContact("A Smith");
+
+    client.get().uri("/api/v1/contact/" + created.getId()).exchange()
+      .expectStatus().isOk()
+      .expectHeader().valueEquals("ETag", "\"0\"")
+      .expectBody(Contact.class).value(contact -> Assertions.assertThat(contact.getName()).isEqualTo("A Smith"));
+
+    client.put().uri("/api/v1/contact/" + created.getId()).header("If-Match", "\"0\"")
+      .bodyValue(new UpdateContactDto("B Smith")).exchange()
+      .expectStatus().isOk()
+      .expectHeader().valueEquals("ETag", "\"1\"");
+
+    client.put().uri("/api/v1/contact/" + created.getId()).header("If-Match", "\"0\"")
+      .bodyValue(new UpdateContactDto("C Smith")).exchange()
+      .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+    client.delete().uri("/api/v1/contact/" + created.getId()).exchange()
+      .expectStatus().isNoContent();
+
+    client.get().uri("/api/v1/contact/" + created.getId()).exchange()
+      .expectStatus().isNotFound();
+    client.delete().uri("/api/v1/contact/" + created.getId()).exchange()
+      .expectStatus().isNotFound();
+  }
+
+  @Test
+  public void testCreateContactBadRequest() {
+    client.post().uri("/api/v1/contact").bodyValue(new CreateContactDto(" ")).exchange()
+      .expectStatus().isBadRequest();
+  }
+
+  @Test
+  public void testListAndStreamContacts() {
+    final Contact first = createContact("Bruce Wayne");
+    createContact("Clark Kent");
+    createContact("Diana Prince");
+
+    client.get().uri("/api/v1/contact?limit=2&after=" + (first.getId() - 1)).exchange()
+      .expectStatus().isOk()
+      .expectHeader().exists(ContactController.NEXT_CURSOR_HEADER)
+      .expectBodyList(Contact.class).hasSize(2);
+
+    client.get().uri("/api/v1/contact?name=wayne").exchange()
+      .expectStatus().isOk()
+      .expectBodyList(Contact.class).value(contacts -> Assertions.assertThat(contacts)
+        .extracting(Contact::getName).contains("Bruce Wayne"));
+
+    final List<Contact> streamed = client.get().uri("/api/v1/contact?after=" + (first.getId() - 1))
+      .accept(MediaType.APPLICATION_NDJSON).exchange()
+      .expectStatus().isOk()
+      .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+      .returnResult(Contact.class).getResponseBody().collectList().block();
+
+    Assertions.assertThat(streamed).extracting(Contact::getName).containsExactly("Bruce Wayne", "Clark Kent", "Diana Prince");
+  }
+
+  private Contact createContact(String name) {
+    return client.post().uri("/api/v1/contact").bodyValue(new CreateContactDto(name)).exchange()
+      .expectStatus().isOk()
+      .expectBody(Contact.class).returnResult().getResponseBody();
+  }
+}
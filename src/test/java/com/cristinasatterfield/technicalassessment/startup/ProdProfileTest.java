@@ -0,0 +1,44 @@
+package com.cristinasatterfield.technicalassessment.startup;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springdoc.webmvc.api.OpenApiWebMvcResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Starts the prod profile against the Flyway schema, so an entity that no longer
+ * matches the migrations fails here rather than on deploy
+ */
+@ActiveProfiles("prod")
+@SpringBootTest(
+  webEnvironment = WebEnvironment.RANDOM_PORT,
+  properties = "spring.datasource.url=jdbc:tc:postgresql:13:///prodprofile"
+)
+public class ProdProfileTest {
+  @Autowired
+  private TestRestTemplate template;
+
+  @Autowired
+  private ConfigurableListableBeanFactory beanFactory;
+
+  @Test
+  public void testDocsCreatedOnFirstRequest() {
+    final String[] docsBeans = beanFactory.getBeanNamesForType(OpenApiWebMvcResource.class, false, false);
+
+    Assertions.assertThat(docsBeans).hasSize(1);
+    Assertions.assertThat(beanFactory.containsSingleton(docsBeans[0])).isFalse();
+    Assertions.assertThat(template.getForEntity("/docs", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(beanFactory.containsSingleton(docsBeans[0])).isTrue();
+  }
+
+  @Test
+  public void testServesContacts() {
+    Assertions.assertThat(template.getForEntity("/api/v1/contact", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+  }
+}
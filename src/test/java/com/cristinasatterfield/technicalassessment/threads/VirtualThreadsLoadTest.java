@@ -0,0 +1,93 @@
+package com.cristinasatterfield.technicalassessment.threads;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.cristinasatterfield.technicalassessment.TechnicalAssessmentApplication;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Holds many more concurrent slow requests open than Tomcat has platform threads.
+ * With server.tomcat.threads.max=10, a platform thread pool would need
+ * REQUESTS / 10 * SLOW_REQUEST_MILLIS to drain them.
+ */
+@ActiveProfiles("virtual-threads")
+@SpringBootTest(
+  classes = TechnicalAssessmentApplication.class,
+  webEnvironment = WebEnvironment.RANDOM_PORT,
+  properties = "server.tomcat.threads.max=10"
+)
+@Import(VirtualThreadsLoadTest.SlowControllerConfig.class)
+public class VirtualThreadsLoadTest {
+  private static final int REQUESTS = 500;
+
+  private static final long SLOW_REQUEST_MILLIS = 500;
+
+  @LocalServerPort
+  private int port;
+
+  @Test
+  public void testConcurrentSlowRequests() {
+    final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/test/slow")).build();
+
+    final long start = System.nanoTime();
+    final List<HttpResponse<String>> responses = IntStream.range(0, REQUESTS)
+      .mapToObj(i -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+      .collect(Collectors.toList())
+      .stream()
+      .map(CompletableFuture::join)
+      .collect(Collectors.toList());
+    final long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+    Assertions.assertThat(responses).extracting(HttpResponse::statusCode).containsOnly(200);
+    // Each request ran on a virtual thread
+    Assertions.assertThat(responses).extracting(HttpResponse::body).containsOnly("true");
+    Assertions.assertThat(elapsedMillis).isLessThan(REQUESTS / 10 * SLOW_REQUEST_MILLIS / 4);
+  }
+
+  /**
+   * Registers SlowController for this test only
+   */
+  @TestConfiguration
+  static class SlowControllerConfig {
+    @Bean
+    SlowController slowController() {
+      return new SlowController();
+    }
+  }
+
+  /**
+   * Stands in for a request blocked on a slow query, without making the result depend
+   * on the connection pool size. Not a @Component, so component scanning never picks
+   * it up for another test's context.
+   */
+  @RequestMapping
+  @ResponseBody
+  static class SlowController {
+    @GetMapping("/test/slow")
+    public boolean slow() throws InterruptedException {
+      Thread.sleep(SLOW_REQUEST_MILLIS);
+      return Thread.currentThread().isVirtual();
+    }
+  }
+}